@@ -0,0 +1,92 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import interaction.OffscreenPainter;
+import question2.Cercle;
+import question2.Point;
+
+/**
+ * Draws circle outlines scattered over a map four times as wide and as
+ * high as a 1000x1000 canvas, so that most of them miss it, then large
+ * filled discs (radius 2,000 to 5,000) that cover most of the canvas.
+ * The fill rate of the discs is compared with {@link Arrays#fill} over
+ * the same number of pixels, which is the memory bandwidth bound.
+ * 
+ * Usage: {@code CircleBenchmark [circles]} (100,000 by default).
+ */
+public class CircleBenchmark {
+	private static final int SIZE = 1000;
+	private static final int DISCS = 20;
+	private static final int ROUNDS = 10;
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		Random random = new Random(42);
+		OffscreenPainter painter = new OffscreenPainter(SIZE, SIZE);
+
+		Cercle[] outlines = new Cercle[n];
+		for(int i = 0 ; i < n ; i++)
+			outlines[i] = new Cercle(new Point((random.nextDouble() * 4 - 1.5) * SIZE, (random.nextDouble() * 4 - 1.5) * SIZE),
+					1 + random.nextDouble() * 100);
+		Cercle[] discs = new Cercle[DISCS];
+		for(int i = 0 ; i < DISCS ; i++) {
+			double r = 2000 + random.nextDouble() * 3000;
+			double angle = random.nextDouble() * 2 * Math.PI;
+			// centre outside the canvas, at a distance that keeps most of the canvas inside
+			double d = r - SIZE * random.nextDouble() * 0.5;
+			discs[i] = new Cercle(new Point(SIZE / 2.0 + d * Math.cos(angle), SIZE / 2.0 + d * Math.sin(angle)), r);
+			discs[i].setRempli(true);
+		}
+
+		long outline = Long.MAX_VALUE, filled = Long.MAX_VALUE, bandwidth = Long.MAX_VALUE;
+		long pixels = 0;
+		int[] row = new int[SIZE * SIZE];
+		for(int round = 0 ; round < ROUNDS ; round++) {
+			painter.beginFrame();
+			long t0 = System.nanoTime();
+			for(Cercle c : outlines)
+				c.draw(painter);
+			long t1 = System.nanoTime();
+			painter.endFrame();
+
+			pixels = 0;
+			long fill = 0;
+			for(Cercle c : discs) {
+				painter.beginFrame();
+				long t2 = System.nanoTime();
+				c.draw(painter);
+				fill += System.nanoTime() - t2;
+				painter.endFrame();
+				pixels += lit(painter);
+			}
+
+			// the same number of pixels written by Arrays.fill, in rows of the canvas width
+			long t3 = System.nanoTime();
+			for(long left = pixels ; left > 0 ; left -= SIZE * SIZE)
+				Arrays.fill(row, 0, (int) Math.min(left, SIZE * SIZE), round);
+			long t4 = System.nanoTime();
+
+			outline = Math.min(outline, t1 - t0);
+			filled = Math.min(filled, fill);
+			bandwidth = Math.min(bandwidth, t4 - t3);
+		}
+
+		System.out.printf("%d outlines          %7.2f ms%n", n, outline / 1e6);
+		System.out.printf("%d filled discs       %7.2f ms, %.2f Mpixels, %.0f MB/s%n", DISCS, filled / 1e6, pixels / 1e6,
+				pixels * 4 / (filled / 1e9) / 1e6);
+		System.out.printf("Arrays.fill, same pixels %7.2f ms, %.0f MB/s%n", bandwidth / 1e6,
+				pixels * 4 / (bandwidth / 1e9) / 1e6);
+	}
+
+	private static long lit(OffscreenPainter painter) {
+		int background = new OffscreenPainter(1, 1).getRGB(0, 0);
+		long count = 0;
+		for(int y = 0 ; y < SIZE ; y++)
+			for(int x = 0 ; x < SIZE ; x++)
+				if(painter.getRGB(x, y) != background)
+					count++;
+		return count;
+	}
+}
@@ -0,0 +1,67 @@
+package benchmark;
+
+import java.util.Random;
+
+import interaction.OffscreenPainter;
+import question2.CircleCache;
+import question2.Cercle;
+import question2.Point;
+
+/**
+ * Draws circles whose radii come from a small set of values, as in a
+ * scatter plot or a particle view, once with the default capacity of
+ * {@link CircleCache} and once with a capacity of zero, which disables
+ * it, first as outlines and then as filled discs. The radii are drawn
+ * between 1 and {@code radii + 1}, so that there are {@code radii}
+ * distinct integer radii, one table each. The cache counters are
+ * printed with the timings.
+ * 
+ * Usage: {@code CircleCacheBenchmark [circles] [radii]} (200,000 and
+ * 64 by default).
+ */
+public class CircleCacheBenchmark {
+	private static final int SIZE = 1000;
+	private static final int ROUNDS = 10;
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		int radii = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+		Random random = new Random(42);
+		OffscreenPainter painter = new OffscreenPainter(SIZE, SIZE);
+
+		Cercle[] circles = new Cercle[n];
+		for(int i = 0 ; i < n ; i++)
+			circles[i] = new Cercle(new Point(random.nextDouble() * SIZE, random.nextDouble() * SIZE),
+					1 + random.nextInt(radii) + random.nextDouble());
+
+		long capacity = CircleCache.getCapacite();
+		System.out.printf("%d circles, %d radii%n", n, radii);
+		for(boolean filled : new boolean[] {false, true}) {
+			for(Cercle c : circles)
+				c.setRempli(filled);
+			CircleCache.setCapacite(0);
+			long uncached = time(painter, circles);
+			CircleCache.setCapacite(capacity);
+			CircleCache.vider();
+			long cached = time(painter, circles);
+
+			String kind = filled ? "discs   " : "outlines";
+			System.out.printf("%s without cache %8.2f ms%n", kind, uncached / 1e6);
+			System.out.printf("%s with cache    %8.2f ms, %d hits, %d misses, %d tables, %d bytes%n", kind, cached / 1e6,
+					CircleCache.getSucces(), CircleCache.getEchecs(), CircleCache.getNbTables(), CircleCache.getOccupation());
+		}
+	}
+
+	private static long time(OffscreenPainter painter, Cercle[] circles) {
+		long best = Long.MAX_VALUE;
+		for(int round = 0 ; round < ROUNDS ; round++) {
+			painter.beginFrame();
+			long t0 = System.nanoTime();
+			for(Cercle c : circles)
+				c.draw(painter);
+			best = Math.min(best, System.nanoTime() - t0);
+			painter.endFrame();
+		}
+		return best;
+	}
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import interaction.OffscreenPainter;
+import question2.Affine;
+import question2.FillRule;
+import question2.Point;
+import question2.Polygon;
+
+/**
+ * Draws filled polygons that reach far beyond an 800x600 canvas, as in a
+ * strongly zoomed view: a zigzag of 100,000 vertices, two million pixels
+ * wide and taller than the canvas, of which a few teeth are visible; a
+ * disc of 100,000 vertices of which only the top is visible; and a
+ * self-intersecting star filled with the even-odd rule, centred on a
+ * corner of the canvas. Prints the time per frame and a hash of the
+ * pixels, so that runs can be compared.
+ * 
+ * Usage: {@code ClippingBenchmark [vertices]} (100,000 by default).
+ */
+public class ClippingBenchmark {
+	private static final int WIDTH = 800;
+	private static final int HEIGHT = 600;
+	private static final int FRAMES = 50;
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		OffscreenPainter painter = new OffscreenPainter(WIDTH, HEIGHT);
+
+		// disc of radius 50,000 whose top crosses the canvas
+		double radius = 50_000;
+		Point[] disc = new Point[n];
+		for(int i = 0 ; i < n ; i++) {
+			double angle = 2 * Math.PI * i / n;
+			disc[i] = new Point(WIDTH / 2.0 + radius * Math.cos(angle), HEIGHT / 2.0 - radius + radius * Math.sin(angle));
+		}
+		Polygon big = new Polygon(disc);
+		big.setRemplissage(FillRule.NON_ZERO);
+
+		// zigzag between y = -100 and y = 700, closed by a bottom side at y = -200
+		Point[] teeth = new Point[n + 2];
+		for(int i = 0 ; i < n ; i++)
+			teeth[i] = new Point(-1_000_000 + 2_000_000.0 * i / (n - 1), i % 2 == 0 ? -100 : HEIGHT + 100);
+		teeth[n] = new Point(1_000_000, -200);
+		teeth[n + 1] = new Point(-1_000_000, -200);
+		Polygon zigzag = new Polygon(teeth);
+		zigzag.setRemplissage(FillRule.NON_ZERO);
+
+		// star with 1,001 branches, each vertex joined to the one 500 steps further
+		int branches = 1001;
+		Point[] star = new Point[branches];
+		for(int i = 0 ; i < branches ; i++) {
+			double angle = 2 * Math.PI * ((long) i * 500 % branches) / branches;
+			star[i] = new Point(100 * Math.cos(angle), 100 * Math.sin(angle));
+		}
+		Polygon crossed = new Polygon(star);
+		crossed.setRemplissage(FillRule.EVEN_ODD);
+		Affine zoom = Affine.scale(5, 5);
+
+		for(int i = 0 ; i < FRAMES ; i++)
+			frame(painter, zigzag, big, crossed, zoom);
+		long t0 = System.nanoTime();
+		for(int i = 0 ; i < FRAMES ; i++)
+			frame(painter, zigzag, big, crossed, zoom);
+		long t1 = System.nanoTime();
+
+		long hash = 0;
+		int lit = 0;
+		for(int y = 0 ; y < HEIGHT ; y++)
+			for(int x = 0 ; x < WIDTH ; x++) {
+				int rgb = painter.getRGB(x, y);
+				hash = 31 * hash + rgb;
+				if(rgb != painter.getRGB(0, HEIGHT - 1))
+					lit++;
+			}
+		System.out.println("zigzag and disc vertices: " + n + ", star vertices: " + branches);
+		System.out.printf("%.3f ms per frame, pixels differing from the top left corner: %d, hash %x%n",
+				(t1 - t0) / 1e6 / FRAMES, lit, hash);
+	}
+
+	private static void frame(OffscreenPainter painter, Polygon zigzag, Polygon big, Polygon crossed, Affine zoom) {
+		painter.beginFrame();
+		zigzag.draw(painter);
+		big.draw(painter);
+		crossed.draw(painter, zoom);
+		painter.endFrame();
+	}
+}
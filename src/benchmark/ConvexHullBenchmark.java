@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import question2.ConvexHull;
+import question2.Point;
+import question2.Polygon;
+
+/**
+ * Computes the convex hull of point clouds spread over a square, over a
+ * disc (where many points are on the hull) and along a circle (where all
+ * of them are), sequentially and on the common pool. Both results must
+ * be the same polygon, strictly convex, with every point of the cloud
+ * inside it or on its boundary.
+ * 
+ * Usage: {@code ConvexHullBenchmark [points]} (2,000,000 by default).
+ */
+public class ConvexHullBenchmark {
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		System.out.println("points: " + n + ", threads: " + pool.getParallelism());
+		for(String cloud : new String[] {"square", "disc", "circle"}) {
+			Random random = new Random(42);
+			int size = cloud.equals("circle") ? Math.min(n, 200_000) : n;
+			double[] xs = new double[size], ys = new double[size];
+			for(int i = 0 ; i < size ; i++) {
+				double angle = random.nextDouble() * 2 * Math.PI;
+				double radius = cloud.equals("disc") ? 1000 * Math.sqrt(random.nextDouble()) : 1000;
+				xs[i] = cloud.equals("square") ? random.nextInt(2000) : radius * Math.cos(angle);
+				ys[i] = cloud.equals("square") ? random.nextInt(2000) : radius * Math.sin(angle);
+			}
+
+			Polygon sequential = null, parallel = null;
+			long best = Long.MAX_VALUE, bestParallel = Long.MAX_VALUE;
+			for(int round = 0 ; round < ROUNDS ; round++) {
+				long t0 = System.nanoTime();
+				sequential = ConvexHull.calculer(xs, ys, size);
+				long t1 = System.nanoTime();
+				parallel = ConvexHull.calculer(pool, xs, ys, size);
+				long t2 = System.nanoTime();
+				best = Math.min(best, t1 - t0);
+				bestParallel = Math.min(bestParallel, t2 - t1);
+			}
+			System.out.printf("%-7s %8d points  hull: %6d vertices  sequential %7.1f ms  parallel %7.1f ms  %s%n",
+					cloud, size, sequential.getNbSommets(), best / 1e6, bestParallel / 1e6, check(sequential, parallel, xs, ys));
+		}
+	}
+
+	private static String check(Polygon hull, Polygon other, double[] xs, double[] ys) {
+		int h = hull.getNbSommets();
+		if(other.getNbSommets() != h)
+			return "DIFFERENT HULLS";
+		double[] hx = new double[h], hy = new double[h];
+		for(int k = 0 ; k < h ; k++) {
+			Point p = hull.getSommet(k), q = other.getSommet(k);
+			if(p.getX() != q.getX() || p.getY() != q.getY())
+				return "DIFFERENT HULLS";
+			hx[k] = p.getX();
+			hy[k] = p.getY();
+		}
+		for(int k = 0 ; k < h ; k++) {
+			int l = (k + 1) % h, m = (k + 2) % h;
+			if(cross(hx[k], hy[k], hx[l], hy[l], hx[m], hy[m]) <= 0)
+				return "NOT STRICTLY CONVEX";
+		}
+		for(int i = 0 ; i < xs.length ; i++)
+			for(int k = 0 ; k < h ; k++) {
+				int l = (k + 1) % h;
+				if(cross(hx[k], hy[k], hx[l], hy[l], xs[i], ys[i]) < 0)
+					return "POINT OUTSIDE";
+			}
+		return "ok";
+	}
+
+	private static double cross(double ax, double ay, double bx, double by, double x, double y) {
+		return (bx - ax) * (y - ay) - (by - ay) * (x - ax);
+	}
+}
@@ -0,0 +1,100 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import interaction.OffscreenPainter;
+import question2.Affine;
+import question2.Cercle;
+import question2.FillRule;
+import question2.GraphicalElement;
+import question2.Picture;
+import question2.Point;
+import question2.Polygon;
+import question2.Segment;
+import question2.Vector;
+
+/**
+ * Scrolls a 1000x1000 canvas over a map ten times as wide and as high, so
+ * that about 99% of the shapes are off-screen in every frame. Times
+ * {@link Picture#display()}, which skips the elements outside the canvas,
+ * against drawing every element, and checks that both give the same
+ * pixels.
+ * 
+ * Usage: {@code CullingBenchmark [shapes]} (100000 by default).
+ */
+public class CullingBenchmark {
+	private static final int SIZE = 1000;
+	private static final int MAP = 10 * SIZE;
+	private static final int FRAMES = 20;
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		OffscreenPainter painter = new OffscreenPainter(SIZE, SIZE);
+		GraphicalElement[] elements = scene(count);
+		Picture picture = new Picture(painter, elements);
+		Vector step = new Vector(new double[] {-MAP / (4.0 * FRAMES), -MAP / (4.0 * FRAMES)});
+
+		// warm-up over the same path
+		for(int i = 0 ; i < FRAMES ; i++) {
+			drawAll(painter, elements, picture.getTransform());
+			picture.display();
+		}
+
+		double all = 0, culled = 0;
+		long culledElements = 0;
+		boolean identical = true;
+		for(int i = 0 ; i < FRAMES ; i++) {
+			picture.translateElements(step);
+
+			long start = System.nanoTime();
+			drawAll(painter, elements, picture.getTransform());
+			all += System.nanoTime() - start;
+			int[] reference = painter.getImage().getRGB(0, 0, SIZE, SIZE, null, 0, SIZE);
+
+			start = System.nanoTime();
+			picture.display();
+			culled += System.nanoTime() - start;
+			culledElements += picture.getNbEcartes();
+
+			int[] pixels = painter.getImage().getRGB(0, 0, SIZE, SIZE, null, 0, SIZE);
+			identical &= Arrays.equals(reference, pixels);
+		}
+
+		System.out.println("shapes: " + count + ", canvas: " + SIZE + "x" + SIZE + ", map: " + MAP + "x" + MAP);
+		System.out.printf("draw all       %8.2f ms/frame%n", all / 1e6 / FRAMES);
+		System.out.printf("culled         %8.2f ms/frame   %d culled/frame   %s%n",
+				culled / 1e6 / FRAMES, culledElements / FRAMES, identical ? "identical" : "DIFFERENT");
+	}
+
+	private static void drawAll(OffscreenPainter painter, GraphicalElement[] elements, Affine t) {
+		painter.beginFrame();
+		for(GraphicalElement e : elements)
+			e.draw(painter, t);
+		painter.endFrame();
+	}
+
+	private static GraphicalElement[] scene(int count) {
+		Random random = new Random(42);
+		GraphicalElement[] elements = new GraphicalElement[count];
+		for(int i = 0 ; i < count ; i++) {
+			double x = random.nextDouble() * MAP, y = random.nextDouble() * MAP;
+			double size = 2 + random.nextDouble() * 40;
+			switch(i % 3) {
+			case 0:
+				Polygon polygon = new Polygon(new Point[] {
+						new Point(x, y), new Point(x + size, y + size / 3), new Point(x + size / 2, y + size)});
+				if(random.nextBoolean())
+					polygon.setRemplissage(FillRule.EVEN_ODD);
+				elements[i] = polygon;
+				break;
+			case 1:
+				elements[i] = new Cercle(new Point(x, y), size / 2);
+				break;
+			default:
+				elements[i] = new Segment(new Point(x, y), new Point(x + size, y - size));
+			}
+		}
+		return elements;
+	}
+}
@@ -0,0 +1,108 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import question2.DistanceMatrix;
+import question2.KdTree;
+import question2.Point;
+
+/**
+ * Builds a {@link KdTree} over a point cloud and answers k-nearest-neighbour
+ * queries with it, then computes an all-pairs {@link DistanceMatrix} on a
+ * smaller set. Both are checked against {@link Point#distanceA}: the
+ * neighbours against a scan of the whole cloud, the matrix against a
+ * double loop. Part of the cloud has integer coordinates, so that some
+ * points are at the same distance from a query.
+ * 
+ * Usage: {@code PointCloudBenchmark [points] [queries] [k]}
+ * (1,000,000, 100,000 and 8 by default).
+ */
+public class PointCloudBenchmark {
+	private static final int CHECKED_QUERIES = 50;
+	private static final int MATRIX_POINTS = 4096;
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int m = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		int k = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		Random random = new Random(42);
+
+		double[] xs = new double[n], ys = new double[n];
+		for(int i = 0 ; i < n ; i++) {
+			boolean grid = i % 4 == 0;
+			xs[i] = grid ? random.nextInt(1000) : random.nextDouble() * 1000;
+			ys[i] = grid ? random.nextInt(1000) : random.nextDouble() * 1000;
+		}
+		double[] qx = new double[m], qy = new double[m];
+		for(int i = 0 ; i < m ; i++) {
+			qx[i] = random.nextInt(1000);
+			qy[i] = random.nextInt(1000);
+		}
+
+		long t0 = System.nanoTime();
+		KdTree sequential = new KdTree(xs, ys, n);
+		long t1 = System.nanoTime();
+		KdTree tree = new KdTree(pool, xs, ys, n);
+		long t2 = System.nanoTime();
+		int[] neighbours = new int[m * k];
+		double[] distances = new double[m * k];
+		tree.plusProches(pool, qx, qy, m, k, neighbours, distances);
+		long t3 = System.nanoTime();
+		tree.plusProches(pool, qx, qy, m, k, neighbours, distances);
+		long t4 = System.nanoTime();
+
+		System.out.println("points: " + n + ", queries: " + m + ", k: " + k + ", threads: " + pool.getParallelism());
+		System.out.printf("k-d tree build     %8.1f ms (sequential %.1f ms)%n", (t2 - t1) / 1e6, (t1 - t0) / 1e6);
+		System.out.printf("k nearest queries  %8.1f ms, %.2f us per query (first run %.1f ms)%n",
+				(t4 - t3) / 1e6, (t4 - t3) / 1e3 / m, (t3 - t2) / 1e6);
+
+		// a scan of the whole cloud with distanceA, for some of the queries
+		Point[] points = new Point[n];
+		for(int i = 0 ; i < n ; i++)
+			points[i] = new Point(xs[i], ys[i]);
+		int wrong = 0;
+		long t5 = System.nanoTime();
+		for(int q = 0 ; q < CHECKED_QUERIES ; q++) {
+			Point p = new Point(qx[q], qy[q]);
+			double[] all = new double[n];
+			for(int i = 0 ; i < n ; i++)
+				all[i] = p.distanceA(points[i]);
+			Arrays.sort(all);
+			for(int j = 0 ; j < k ; j++) {
+				double d = distances[q * k + j];
+				if(d != all[j] || p.distanceA(points[neighbours[q * k + j]]) != d)
+					wrong++;
+			}
+			if(!Arrays.equals(neighbours, q * k, q * k + k, sequential.plusProches(qx[q], qy[q], k), 0, k))
+				wrong++;
+		}
+		long t6 = System.nanoTime();
+		System.out.printf("scan of the cloud  %8.2f ms per query%n", (t6 - t5) / 1e6 / CHECKED_QUERIES);
+		System.out.println("neighbours differing from the scan: " + wrong + " (" + CHECKED_QUERIES + " queries checked)");
+
+		int p = Math.min(MATRIX_POINTS, n);
+		double[] matrix = new double[p * p], loop = new double[p * p];
+		long blocked = Long.MAX_VALUE, naive = Long.MAX_VALUE;
+		for(int round = 0 ; round < 3 ; round++) {
+			long t7 = System.nanoTime();
+			DistanceMatrix.calculer(pool, xs, ys, p, xs, ys, p, matrix);
+			long t8 = System.nanoTime();
+			for(int i = 0 ; i < p ; i++)
+				for(int j = 0 ; j < p ; j++)
+					loop[i * p + j] = points[i].distanceA(points[j]);
+			long t9 = System.nanoTime();
+			blocked = Math.min(blocked, t8 - t7);
+			naive = Math.min(naive, t9 - t8);
+		}
+		int differences = 0;
+		for(int i = 0 ; i < p * p ; i++)
+			if(matrix[i] != loop[i])
+				differences++;
+		System.out.printf("distance matrix %dx%d  %6.1f ms (distanceA double loop %.1f ms)%n", p, p,
+				blocked / 1e6, naive / 1e6);
+		System.out.println("matrix entries differing from distanceA: " + differences);
+	}
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+import interaction.OffscreenPainter;
+import interaction.Surface;
+import question2.Point;
+import question2.Polygon;
+
+/**
+ * Measures the number of bytes allocated per frame when a polygon is
+ * rotated and redrawn in a loop, as {@code question2.Main} does.
+ * 
+ * Drawing goes to an {@link OffscreenPainter}, so no display is needed.
+ */
+public class PolygonAllocationBenchmark {
+	private static final int VERTEX_COUNT = 10_000;
+	private static final int WARMUP_FRAMES = 20_000;
+	private static final int MEASURED_FRAMES = 20_000;
+
+	public static void main(String[] args) {
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		Point[] points = new Point[VERTEX_COUNT];
+		for(int i = 0 ; i < VERTEX_COUNT ; i++) {
+			double angle = 2 * Math.PI * i / VERTEX_COUNT;
+			points[i] = new Point(100 * Math.cos(angle), 100 * Math.sin(angle));
+		}
+		Polygon polygon = new Polygon(points);
+
+		Surface painter = new OffscreenPainter(300, 300);
+
+		for(int i = 0 ; i < WARMUP_FRAMES ; i++) {
+			frame(polygon, painter);
+		}
+
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for(int i = 0 ; i < MEASURED_FRAMES ; i++) {
+			frame(polygon, painter);
+		}
+		long after = threads.getThreadAllocatedBytes(threadId);
+
+		System.out.println("vertices: " + VERTEX_COUNT + ", frames: " + MEASURED_FRAMES);
+		System.out.println("bytes allocated per frame: "
+				+ (double) (after - before) / MEASURED_FRAMES);
+	}
+
+	private static void frame(Polygon polygon, Surface painter) {
+		polygon.rotate(0.02);
+		polygon.draw(painter);
+	}
+}
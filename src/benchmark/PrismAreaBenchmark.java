@@ -0,0 +1,61 @@
+package benchmark;
+
+import question2.Affine;
+import question2.Point;
+import question2.Polygon;
+import question2.Vector;
+
+/**
+ * Evaluates {@code aireLateralePrismeDroit} for many heights on a polygon
+ * that keeps moving rigidly, then checks the cached perimeter and area
+ * against a fresh copy of the polygon after rigid motions, a uniform
+ * scale and a shear.
+ */
+public class PrismAreaBenchmark {
+	private static final int VERTEX_COUNT = 10_000;
+	private static final int HEIGHTS = 1_000_000;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		Point[] points = new Point[VERTEX_COUNT];
+		for(int i = 0 ; i < VERTEX_COUNT ; i++) {
+			double angle = 2 * Math.PI * i / VERTEX_COUNT;
+			double radius = 100 + 20 * Math.sin(7 * angle);
+			points[i] = new Point(radius * Math.cos(angle), radius * Math.sin(angle));
+		}
+		Polygon polygon = new Polygon(points);
+
+		double sum = 0;
+		long best = Long.MAX_VALUE;
+		for(int round = 0 ; round < ROUNDS ; round++) {
+			long t0 = System.nanoTime();
+			for(int i = 0 ; i < HEIGHTS ; i++) {
+				if(i % 1000 == 0) {
+					polygon.rotate(0.001);
+					polygon.translate(new Vector(new double[] {0.5, -0.25}));
+				}
+				sum += polygon.aireLateralePrismeDroit(i * 1e-3);
+			}
+			best = Math.min(best, System.nanoTime() - t0);
+		}
+		System.out.println("vertices: " + VERTEX_COUNT + ", heights: " + HEIGHTS + " (checksum " + sum + ")");
+		System.out.printf("best round: %.2f ms, %.1f ns per height%n", best / 1e6, (double) best / HEIGHTS);
+
+		check("after rigid motions", polygon);
+		polygon.transform(Affine.scale(2.5, 2.5));
+		check("after a uniform scale", polygon);
+		polygon.transform(Affine.shear(0.3, 0));
+		check("after a shear", polygon);
+	}
+
+	private static void check(String label, Polygon polygon) {
+		Point[] copy = new Point[polygon.getNbSommets()];
+		for(int i = 0 ; i < copy.length ; i++) {
+			Point s = polygon.getSommet(i);
+			copy[i] = new Point(s.getX(), s.getY());
+		}
+		Polygon fresh = new Polygon(copy);
+		System.out.printf("%-22s perimeter %.6f (fresh %.6f), area %.4f (fresh %.4f)%n", label,
+				polygon.perimetre(), fresh.perimetre(), polygon.aire(), fresh.aire());
+	}
+}
@@ -0,0 +1,159 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import interaction.OffscreenPainter;
+import question2.Affine;
+import question2.BoundingBox;
+import question2.Cercle;
+import question2.GraphicalElement;
+import question2.Group;
+import question2.Picture;
+import question2.Point;
+import question2.Segment;
+
+/**
+ * Animates a hierarchy of {@link Group}s: every frame, the root and all
+ * the groups of one level turn around their own centre. The same motion
+ * is applied to a flat copy of the scene, where turning a group means
+ * transforming every shape under it. Both scenes are drawn every frame,
+ * and in the end every shape must be at the same place in both.
+ * 
+ * Usage: {@code SceneGraphBenchmark [depth]} (7 by default, 4 children
+ * per group, 8 shapes per leaf group).
+ */
+public class SceneGraphBenchmark {
+	private static final int SIZE = 1000;
+	private static final int SHAPES = 8;
+	private static final int FRAMES = 50;
+	private static final int ANIMATED_LEVEL = 3;
+
+	// centre of each group, in its own coordinates
+	private final Map<Group, Point> centres = new HashMap<>();
+	// copy of each shape in the flat scene
+	private final Map<GraphicalElement, GraphicalElement> twins = new HashMap<>();
+	private final List<GraphicalElement> flat = new ArrayList<>();
+	private final List<List<Group>> levels = new ArrayList<>();
+	private final Random random = new Random(42);
+
+	public static void main(String[] args) {
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+		new SceneGraphBenchmark().run(depth);
+	}
+
+	private void run(int depth) {
+		for(int d = 0 ; d < depth ; d++)
+			this.levels.add(new ArrayList<>());
+		Group root = this.build(0, depth, SIZE / 2.0, SIZE / 2.0, SIZE / 2.0);
+		List<Group> animated = this.levels.get(ANIMATED_LEVEL);
+		List<List<GraphicalElement>> under = new ArrayList<>();
+		for(Group g : animated)
+			under.add(this.twinsUnder(g, new ArrayList<>()));
+
+		int groups = 0;
+		for(List<Group> level : this.levels)
+			groups += level.size();
+		System.out.println("groups: " + groups + ", shapes: " + this.flat.size() + ", animated groups: "
+				+ (1 + animated.size()) + " per frame");
+
+		OffscreenPainter painter = new OffscreenPainter(SIZE, SIZE);
+		Picture hierarchy = new Picture(painter, new GraphicalElement[] {root});
+		Picture flatPicture = new Picture(painter, this.flat.toArray(new GraphicalElement[0]));
+
+		double update = 0, draw = 0, flatUpdate = 0, flatDraw = 0;
+		for(int frame = 0 ; frame < 2 * FRAMES ; frame++) {
+			long t0 = System.nanoTime();
+			Point c = this.centres.get(root);
+			root.rotate(new Point(c.getX(), c.getY()), 0.01);
+			for(Group g : animated)
+				g.rotate(this.centreInParent(g), 0.05);
+			long t1 = System.nanoTime();
+			hierarchy.display();
+			long t2 = System.nanoTime();
+
+			// the same motion on the flat scene, around the centres in world coordinates
+			Affine rootTurn = Affine.rotation(c.getX(), c.getY(), 0.01);
+			for(GraphicalElement e : this.flat)
+				e.transform(rootTurn);
+			for(int i = 0 ; i < animated.size() ; i++) {
+				Group g = animated.get(i);
+				Affine w = g.getTransformMonde();
+				Point gc = this.centres.get(g);
+				Affine turn = Affine.rotation(w.transformX(gc.getX(), gc.getY()), w.transformY(gc.getX(), gc.getY()), 0.05);
+				for(GraphicalElement e : under.get(i))
+					e.transform(turn);
+			}
+			long t3 = System.nanoTime();
+			flatPicture.display();
+			long t4 = System.nanoTime();
+
+			if(frame >= FRAMES) {
+				update += t1 - t0;
+				draw += t2 - t1;
+				// the world centres are read from the hierarchy, which is not part of the flat cost
+				flatUpdate += t3 - t2;
+				flatDraw += t4 - t3;
+			}
+		}
+
+		System.out.printf("groups   update %8.3f ms/frame   draw %7.2f ms/frame%n", update / 1e6 / FRAMES, draw / 1e6 / FRAMES);
+		System.out.printf("flat     update %8.3f ms/frame   draw %7.2f ms/frame%n", flatUpdate / 1e6 / FRAMES, flatDraw / 1e6 / FRAMES);
+
+		// the centre of a box moves like the centre of the shape, for circles and segments
+		double error = 0;
+		for(Map.Entry<GraphicalElement, GraphicalElement> e : this.twins.entrySet()) {
+			BoundingBox a = e.getKey().getBounds(), b = e.getValue().getBounds();
+			Affine w = e.getKey().getParent().getTransformMonde();
+			double x = (a.getMinX() + a.getMaxX()) / 2, y = (a.getMinY() + a.getMaxY()) / 2;
+			error = Math.max(error, Math.hypot(w.transformX(x, y) - (b.getMinX() + b.getMaxX()) / 2,
+					w.transformY(x, y) - (b.getMinY() + b.getMaxY()) / 2));
+		}
+		System.out.printf("largest distance between a shape and its flat copy: %.2e%n", error);
+	}
+
+	// the centre of a group, in the coordinates of its parent, where rotate works
+	private Point centreInParent(Group g) {
+		Point c = this.centres.get(g);
+		Affine local = g.getTransformLocale();
+		return new Point(local.transformX(c.getX(), c.getY()), local.transformY(c.getX(), c.getY()));
+	}
+
+	private Group build(int level, int depth, double cx, double cy, double half) {
+		Group g = new Group();
+		this.centres.put(g, new Point(cx, cy));
+		this.levels.get(level).add(g);
+		if(level == depth - 1) {
+			for(int i = 0 ; i < SHAPES ; i++) {
+				double x = cx + (this.random.nextDouble() - 0.5) * half, y = cy + (this.random.nextDouble() - 0.5) * half;
+				double r = 1 + this.random.nextDouble() * half / 4;
+				GraphicalElement shape = i % 2 == 0 ? new Cercle(new Point(x, y), r)
+						: new Segment(new Point(x - r, y), new Point(x + r, y + r));
+				GraphicalElement twin = i % 2 == 0 ? new Cercle(new Point(x, y), r)
+						: new Segment(new Point(x - r, y), new Point(x + r, y + r));
+				g.ajouter(shape);
+				this.twins.put(shape, twin);
+				this.flat.add(twin);
+			}
+			return g;
+		}
+		double q = half / 2;
+		for(int i = 0 ; i < 4 ; i++)
+			g.ajouter(this.build(level + 1, depth, cx + (i % 2 == 0 ? -q : q), cy + (i < 2 ? -q : q), q));
+		return g;
+	}
+
+	private List<GraphicalElement> twinsUnder(Group g, List<GraphicalElement> result) {
+		for(int i = 0 ; i < g.getNbEnfants() ; i++) {
+			GraphicalElement e = g.getEnfant(i);
+			if(e instanceof Group)
+				this.twinsUnder((Group) e, result);
+			else
+				result.add(this.twins.get(e));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import interaction.OffscreenPainter;
+import interaction.Surface;
+import question2.Point;
+import question2.Segment;
+
+/**
+ * Compares the integer Bresenham rasterizer of {@link Segment#draw} with
+ * the former floating-point DDA, for short, long and mostly off-screen
+ * segments.
+ * 
+ * Plain timing loop with warm-up, reporting nanoseconds per segment (JMH
+ * is not available to this tree). The two rasterizers are timed in turn,
+ * several times, and the best time of each is kept, which filters out
+ * most of the noise of a shared machine. Drawing goes to an
+ * {@link OffscreenPainter}, so no display is needed.
+ */
+public class SegmentBenchmark {
+	private static final int WIDTH = 1000;
+	private static final int HEIGHT = 1000;
+	private static final int SEGMENTS = 1000;
+	private static final int ROUNDS = 200;
+	private static final int TRIALS = 10;
+
+	public static void main(String[] args) {
+		Surface painter = new OffscreenPainter(WIDTH, HEIGHT);
+
+		run(painter, "short", 0, 10, ROUNDS);
+		run(painter, "long", 0, 900, ROUNDS);
+		// the DDA steps through the whole segment: fewer rounds
+		run(painter, "mostly off-screen", 20 * WIDTH, 20 * WIDTH, ROUNDS / 20);
+	}
+
+	private static void run(Surface painter, String name, double offset, double length, int rounds) {
+		java.util.Random random = new java.util.Random(42);
+		Point[][] ends = new Point[SEGMENTS][];
+		Segment[] segments = new Segment[SEGMENTS];
+		for(int i = 0 ; i < SEGMENTS ; i++) {
+			double x = random.nextDouble() * (WIDTH - 1);
+			double y = random.nextDouble() * (HEIGHT - 1);
+			double angle = random.nextDouble() * 2 * Math.PI;
+			Point a = new Point(x, y);
+			Point b = new Point(x + offset + length * Math.cos(angle), y + length * Math.sin(angle));
+			ends[i] = new Point[] {a, b};
+			segments[i] = new Segment(a, b);
+		}
+
+		for(int r = 0 ; r < rounds ; r++) {
+			timeLegacy(painter, ends, 1);
+			timeBresenham(painter, segments, 1);
+		}
+
+		long legacy = Long.MAX_VALUE, bresenham = Long.MAX_VALUE;
+		for(int trial = 0 ; trial < TRIALS ; trial++) {
+			legacy = Math.min(legacy, timeLegacy(painter, ends, rounds));
+			bresenham = Math.min(bresenham, timeBresenham(painter, segments, rounds));
+		}
+
+		double count = (double) rounds * SEGMENTS;
+		System.out.printf("%-18s DDA %9.1f ns/segment   Bresenham %9.1f ns/segment%n",
+				name, legacy / count, bresenham / count);
+	}
+
+	// Each timed loop is a method of its own, warmed up on its own, so that
+	// the JIT compiles it separately rather than as one on-stack
+	// replacement of run() holding both rasterizers.
+	private static long timeLegacy(Surface painter, Point[][] ends, int rounds) {
+		long start = System.nanoTime();
+		for(int r = 0 ; r < rounds ; r++)
+			for(int i = 0 ; i < ends.length ; i++)
+				legacyDraw(painter, ends[i][0], ends[i][1]);
+		return System.nanoTime() - start;
+	}
+
+	private static long timeBresenham(Surface painter, Segment[] segments, int rounds) {
+		long start = System.nanoTime();
+		for(int r = 0 ; r < rounds ; r++)
+			for(int i = 0 ; i < segments.length ; i++)
+				segments[i].draw(painter);
+		return System.nanoTime() - start;
+	}
+
+	// the floating-point DDA formerly used by Segment.draw
+	private static void legacyDraw(Surface painter, Point p1, Point p2) {
+		double max = Math.max(Math.abs(p1.getX() - p2.getX()), Math.abs(p1.getY() - p2.getY()));
+		double diffX = (p2.getX() - p1.getX()) / max;
+		double diffY = (p2.getY() - p1.getY()) / max;
+
+		double posX = p1.getX() + 0.5;
+		double posY = p1.getY() + 0.5;
+
+		for(int i = 0 ; i < (int) max ; i++) {
+			painter.setPixel((int) posX, (int) posY, true);
+			posX +=  diffX;
+			posY +=  diffY;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import question2.Forme;
+import question2.Point;
+import question2.Polygon;
+import question2.Quadrilatere;
+import question2.Rectangle;
+import question2.ShapeAnalytics;
+import question2.ShapeStore;
+import question2.Triangle;
+
+/**
+ * Computes perimeter, area, lateral prism area and the two
+ * classifications for a mix of triangles, quadrilaterals and pentagons,
+ * once through one {@link Forme} object per shape and once through a
+ * {@link ShapeStore} and {@link ShapeAnalytics}. Every result of the bulk
+ * pass must be equal to the one given by the objects.
+ * 
+ * Usage: {@code ShapeAnalyticsBenchmark [shapes]} (1,000,000 by default).
+ */
+public class ShapeAnalyticsBenchmark {
+	private static final int ROUNDS = 5;
+	private static final double HEIGHT = 3.5;
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		Random random = new Random(42);
+		Polygon[] shapes = new Polygon[n];
+		ShapeStore store = new ShapeStore(n, 4 * n);
+		for(int i = 0 ; i < n ; i++) {
+			shapes[i] = shape(i % 5, random);
+			store.ajouter(shapes[i]);
+		}
+
+		double[] perimeters = new double[n], areas = new double[n], lateral = new double[n];
+		boolean[] right = new boolean[n], parallelograms = new boolean[n];
+		long objects = Long.MAX_VALUE;
+		for(int round = 0 ; round < ROUNDS ; round++) {
+			// fresh objects each round, so that the cached measures of Forme do not help
+			Polygon[] copies = new Polygon[n];
+			for(int i = 0 ; i < n ; i++)
+				copies[i] = copy(shapes[i]);
+			long t0 = System.nanoTime();
+			for(int i = 0 ; i < n ; i++) {
+				Polygon p = copies[i];
+				perimeters[i] = p.perimetre();
+				areas[i] = p.aire();
+				lateral[i] = p.aireLateralePrismeDroit(HEIGHT);
+				right[i] = p instanceof Triangle && ((Triangle) p).estTriangleRectangle();
+				parallelograms[i] = p instanceof Quadrilatere && ((Quadrilatere) p).estParallelogramme();
+			}
+			objects = Math.min(objects, System.nanoTime() - t0);
+		}
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		long bulkOnly = Long.MAX_VALUE;
+		double[] total = new double[1];
+		for(int round = 0 ; round < ROUNDS ; round++) {
+			long t0 = System.nanoTime();
+			ShapeAnalytics.analyser(pool, store, HEIGHT, r -> {
+				double sum = 0;
+				for(int k = 0 ; k < r.getNb() ; k++)
+					sum += r.aireLateralePrismeDroit(k) + r.aire(k);
+				synchronized(total) {
+					total[0] += sum;
+				}
+			});
+			bulkOnly = Math.min(bulkOnly, System.nanoTime() - t0);
+		}
+
+		long bulk = Long.MAX_VALUE;
+		int[] mismatches = new int[1];
+		int[] counts = new int[2];
+		for(int round = 0 ; round < ROUNDS ; round++) {
+			mismatches[0] = 0;
+			counts[0] = counts[1] = 0;
+			long t0 = System.nanoTime();
+			ShapeAnalytics.analyser(pool, store, HEIGHT, r -> {
+				int bad = 0, nbRight = 0, nbParallelograms = 0;
+				for(int k = 0 ; k < r.getNb() ; k++) {
+					int i = r.getPremiere() + k;
+					if(Double.compare(r.perimetre(k), perimeters[i]) != 0 || Double.compare(r.aire(k), areas[i]) != 0
+							|| Double.compare(r.aireLateralePrismeDroit(k), lateral[i]) != 0
+							|| r.estTriangleRectangle(k) != right[i] || r.estParallelogramme(k) != parallelograms[i])
+						bad++;
+					if(r.estTriangleRectangle(k))
+						nbRight++;
+					if(r.estParallelogramme(k))
+						nbParallelograms++;
+				}
+				synchronized(mismatches) {
+					mismatches[0] += bad;
+					counts[0] += nbRight;
+					counts[1] += nbParallelograms;
+				}
+			});
+			bulk = Math.min(bulk, System.nanoTime() - t0);
+		}
+
+		System.out.println("shapes: " + n + ", threads: " + pool.getParallelism()
+				+ ", right triangles: " + counts[0] + ", parallelograms: " + counts[1]);
+		System.out.printf("objects   %8.2f ms%n", objects / 1e6);
+		System.out.printf("bulk      %8.2f ms%n", bulkOnly / 1e6);
+		System.out.printf("bulk      %8.2f ms, comparing every result with the objects%n", bulk / 1e6);
+		System.out.println("results differing from Forme: " + mismatches[0]);
+	}
+
+	// integer coordinates, so that some triangles are right and some quadrilaterals are parallelograms
+	private static Polygon shape(int kind, Random random) {
+		double x = random.nextInt(1000), y = random.nextInt(1000);
+		switch(kind) {
+		case 0:
+			return new Triangle(new Point(x, y), new Point(x + random.nextInt(20), y),
+					new Point(x + random.nextInt(20), y + 1 + random.nextInt(20)));
+		case 1:
+			return new Rectangle(x, x + 1 + random.nextInt(20), y, y + 1 + random.nextInt(20));
+		case 2: {
+			double dx = random.nextInt(20), dy = random.nextInt(20), ex = random.nextInt(20);
+			return new Quadrilatere(new Point(x, y), new Point(x + dx, y + dy),
+					new Point(x + dx + ex, y + dy + 5), new Point(x + ex, y + random.nextInt(10)));
+		}
+		case 3:
+			return new Triangle(new Point(x + random.nextDouble(), y), new Point(x + 10, y + random.nextDouble()),
+					new Point(x + random.nextDouble(), y + 10));
+		default:
+			Point[] points = new Point[5];
+			for(int k = 0 ; k < 5 ; k++)
+				points[k] = new Point(x + 10 * Math.cos(k * 1.2566) + random.nextDouble(), y + 10 * Math.sin(k * 1.2566));
+			return new Polygon(points);
+		}
+	}
+
+	private static Polygon copy(Polygon p) {
+		Point[] s = new Point[p.getNbSommets()];
+		for(int k = 0 ; k < s.length ; k++)
+			s[k] = new Point(p.getSommet(k).getX(), p.getSommet(k).getY());
+		if(p instanceof Triangle)
+			return new Triangle(s[0], s[1], s[2]);
+		if(p instanceof Quadrilatere)
+			return new Quadrilatere(s[0], s[1], s[2], s[3]);
+		return new Polygon(s);
+	}
+}
@@ -0,0 +1,156 @@
+package benchmark;
+
+import java.util.Random;
+
+import interaction.OffscreenPainter;
+import question2.Affine;
+import question2.BoundingBox;
+import question2.Cercle;
+import question2.GraphicalElement;
+import question2.IndexType;
+import question2.Picture;
+import question2.Point;
+import question2.Segment;
+import question2.Vector;
+
+/**
+ * Times the range queries, point hit tests and nearest-element queries
+ * of {@link Picture} on a large scene, with each {@link IndexType}, and
+ * moves some elements one by one between the queries. Then every element
+ * is moved once, as in an animation frame, and the index is rebuilt from
+ * scratch. Every answer is checked against a linear scan of the elements.
+ * 
+ * Usage: {@code SpatialIndexBenchmark [shapes]} (1000000 by default).
+ */
+public class SpatialIndexBenchmark {
+	private static final double MAP = 100_000;
+	private static final int QUERIES = 1000;
+	private static final int MOVES = 10_000;
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		for(IndexType type : IndexType.values())
+			run(type, count);
+	}
+
+	private static void run(IndexType type, int count) {
+		Random random = new Random(42);
+		GraphicalElement[] elements = scene(count, random);
+		Picture picture = new Picture(new OffscreenPainter(100, 100), elements, type);
+		// the queries are made in the coordinates of the moved picture
+		picture.rotateElements(new Point(MAP / 2, MAP / 2), 0.3);
+		picture.translateElements(new Vector(new double[] {1000, -2000}));
+
+		long start = System.nanoTime();
+		picture.getElementsAt(0, 0);
+		System.out.printf("%s, shapes: %d, index built in %.0f ms%n", type, count, (System.nanoTime() - start) / 1e6);
+
+		boolean correct = true;
+		for(int round = 0 ; round < 4 ; round++) {
+			double[][] zones = new double[QUERIES][];
+			for(int q = 0 ; q < QUERIES ; q++) {
+				double x = random.nextDouble() * MAP, y = random.nextDouble() * MAP, size = random.nextDouble() * 2000;
+				zones[q] = new double[] {x, y, x + size, y + size};
+			}
+
+			long found = 0;
+			start = System.nanoTime();
+			for(double[] z : zones)
+				found += picture.getElementsIn(new BoundingBox(z[0], z[1], z[2], z[3])).length;
+			double range = (System.nanoTime() - start) / 1e3 / QUERIES;
+
+			start = System.nanoTime();
+			for(double[] z : zones)
+				picture.getElementsAt(z[0], z[1]);
+			double hit = (System.nanoTime() - start) / 1e3 / QUERIES;
+
+			start = System.nanoTime();
+			for(double[] z : zones)
+				picture.getNearestElement(z[0], z[1]);
+			double nearest = (System.nanoTime() - start) / 1e3 / QUERIES;
+
+			System.out.printf("%s: range %.1f us (%d found/query), hit test %.1f us, nearest %.1f us%n",
+					round == 0 ? "after bulk load" : "after moves    ", range, found / QUERIES, hit, nearest);
+
+			for(int q = 0 ; q < 20 ; q++)
+				correct &= check(picture, elements, zones[q]);
+
+			// move some elements one by one
+			start = System.nanoTime();
+			for(int m = 0 ; m < MOVES ; m++) {
+				int i = random.nextInt(count);
+				if(m % 2 == 0)
+					picture.translateElement(i, new Vector(new double[] {random.nextGaussian() * 500, random.nextGaussian() * 500}));
+				else
+					picture.rotateElement(i, new Point(random.nextDouble() * MAP, random.nextDouble() * MAP), random.nextDouble() * 0.1);
+			}
+			System.out.printf("%d single-element moves: %.2f us each%n", MOVES, (System.nanoTime() - start) / 1e3 / MOVES);
+		}
+
+		start = System.nanoTime();
+		for(int i = 0 ; i < count ; i++)
+			picture.translateElement(i, new Vector(new double[] {random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10}));
+		System.out.printf("every element moved once: %.0f ms%n", (System.nanoTime() - start) / 1e6);
+
+		picture.applyTransform();
+		start = System.nanoTime();
+		picture.getElementsAt(0, 0);
+		System.out.printf("index rebuilt in %.0f ms%n", (System.nanoTime() - start) / 1e6);
+		correct &= check(picture, elements, new double[] {MAP / 2, MAP / 2, MAP / 2 + 1000, MAP / 2 + 1000});
+
+		System.out.println(correct ? "all answers match a linear scan" : "MISMATCH with a linear scan");
+		System.out.println();
+	}
+
+	private static boolean check(Picture picture, GraphicalElement[] elements, double[] z) {
+		Affine t = picture.getTransform(), inverse = t.inverse();
+		BoundingBox zone = new BoundingBox(z[0], z[1], z[2], z[3]);
+		BoundingBox locale = zone.transform(inverse);
+		double lx = inverse.transformX(z[0], z[1]), ly = inverse.transformY(z[0], z[1]);
+
+		int in = 0, at = 0;
+		GraphicalElement nearest = null;
+		double best = Double.POSITIVE_INFINITY;
+		for(GraphicalElement e : elements) {
+			BoundingBox b = e.getBounds();
+			// the element's box, rotated with the picture, meets the zone if
+			// they overlap both along the axes of the zone and along its own
+			if(b.transform(t).intersects(zone) && b.intersects(locale))
+				in++;
+			if(b.contains(lx, ly))
+				at++;
+			double dx = Math.max(Math.max(b.getMinX() - lx, 0), lx - b.getMaxX());
+			double dy = Math.max(Math.max(b.getMinY() - ly, 0), ly - b.getMaxY());
+			if(dx*dx + dy*dy < best) {
+				best = dx*dx + dy*dy;
+				nearest = e;
+			}
+		}
+		GraphicalElement found = picture.getNearestElement(z[0], z[1]);
+		BoundingBox b = found.getBounds();
+		double dx = Math.max(Math.max(b.getMinX() - lx, 0), lx - b.getMaxX());
+		double dy = Math.max(Math.max(b.getMinY() - ly, 0), ly - b.getMaxY());
+		boolean ok = picture.getElementsIn(zone).length == in
+				&& picture.getElementsAt(z[0], z[1]).length == at
+				&& (found == nearest || dx*dx + dy*dy == best);
+		if(!ok)
+			System.out.println("  range " + picture.getElementsIn(zone).length + "/" + in
+					+ ", hit " + picture.getElementsAt(z[0], z[1]).length + "/" + at
+					+ ", nearest " + (dx*dx + dy*dy) + "/" + best);
+		return ok;
+	}
+
+	private static GraphicalElement[] scene(int count, Random random) {
+		GraphicalElement[] elements = new GraphicalElement[count];
+		for(int i = 0 ; i < count ; i++) {
+			double x = random.nextDouble() * MAP, y = random.nextDouble() * MAP;
+			double size = 2 + random.nextDouble() * 100;
+			if(i % 2 == 0)
+				elements[i] = new Cercle(new Point(x, y), size / 2);
+			else
+				elements[i] = new Segment(new Point(x, y), new Point(x + size, y - size));
+		}
+		return elements;
+	}
+
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import interaction.OffscreenPainter;
+import question2.Cercle;
+import question2.FillRule;
+import question2.GraphicalElement;
+import question2.Picture;
+import question2.Point;
+import question2.Polygon;
+import question2.Segment;
+
+/**
+ * Times {@link Picture#display(ForkJoinPool)} with 1, 2, 4, 8 and 16
+ * worker threads against the sequential {@link Picture#display()}, and
+ * checks that every parallel frame is pixel-identical to the sequential
+ * one. Two scenes are drawn: many small shapes, which mostly fall in a
+ * single tile, and a hundred times fewer large ones, which each cover
+ * dozens of tiles. Each time is the best of several frames.
+ * 
+ * Usage: {@code TileRenderBenchmark [shapes]} (20000 by default).
+ */
+public class TileRenderBenchmark {
+	private static final int SIZE = 2000;
+	private static final int FRAMES = 10;
+	private static final int[] PARALLELISM = {1, 2, 4, 8, 16};
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+		System.out.println("canvas: " + SIZE + "x" + SIZE
+				+ ", available processors: " + Runtime.getRuntime().availableProcessors());
+		run(count + " small shapes", scene(count, 2, 40));
+		run(count / 100 + " large shapes", scene(count / 100, 200, 1500));
+	}
+
+	private static void run(String name, GraphicalElement[] elements) {
+		OffscreenPainter painter = new OffscreenPainter(SIZE, SIZE);
+		Picture picture = new Picture(painter, elements);
+
+		for(int i = 0 ; i < FRAMES ; i++)
+			picture.display();
+		long best = Long.MAX_VALUE;
+		for(int i = 0 ; i < FRAMES ; i++) {
+			long start = System.nanoTime();
+			picture.display();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		double sequential = best / 1e6;
+		int[] reference = painter.getImage().getRGB(0, 0, SIZE, SIZE, null, 0, SIZE);
+
+		System.out.println(name);
+		System.out.printf("sequential     %8.1f ms/frame%n", sequential);
+
+		for(int p : PARALLELISM) {
+			ForkJoinPool pool = new ForkJoinPool(p);
+			for(int i = 0 ; i < FRAMES ; i++)
+				picture.display(pool);
+			best = Long.MAX_VALUE;
+			for(int i = 0 ; i < FRAMES ; i++) {
+				long start = System.nanoTime();
+				picture.display(pool);
+				best = Math.min(best, System.nanoTime() - start);
+			}
+			double time = best / 1e6;
+			pool.shutdown();
+
+			int[] pixels = painter.getImage().getRGB(0, 0, SIZE, SIZE, null, 0, SIZE);
+			boolean identical = java.util.Arrays.equals(reference, pixels);
+			System.out.printf("%2d threads     %8.1f ms/frame   speedup %5.2f   %s%n",
+					p, time, sequential / time, identical ? "identical" : "DIFFERENT");
+		}
+	}
+
+	private static GraphicalElement[] scene(int count, double minSize, double maxSize) {
+		Random random = new Random(42);
+		GraphicalElement[] elements = new GraphicalElement[count];
+		for(int i = 0 ; i < count ; i++) {
+			double x = random.nextDouble() * SIZE, y = random.nextDouble() * SIZE;
+			double size = minSize + random.nextDouble() * (maxSize - minSize);
+			switch(i % 3) {
+			case 0:
+				Polygon polygon = new Polygon(new Point[] {
+						new Point(x, y), new Point(x + size, y + size / 3), new Point(x + size / 2, y + size)});
+				if(random.nextBoolean())
+					polygon.setRemplissage(FillRule.EVEN_ODD);
+				elements[i] = polygon;
+				break;
+			case 1:
+				elements[i] = new Cercle(new Point(x, y), size / 2);
+				break;
+			default:
+				elements[i] = new Segment(new Point(x, y), new Point(x + size, y - size));
+			}
+		}
+		return elements;
+	}
+}
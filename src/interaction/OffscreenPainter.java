@@ -0,0 +1,136 @@
+package interaction;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * The OffscreenPainter class is a {@link Surface} that only lives in
+ * memory. It opens no window and works when {@code java.awt.headless}
+ * is set, so scenes can be rendered by batch jobs and the result read
+ * back with {@link #getRGB(int, int)} or {@link #getImage()}.
+ */
+public class OffscreenPainter implements Surface {
+	private final PixelBuffer buffer;
+	private final Rectangle bounds;
+
+	/**
+	 * Constructs a new in-memory painter, of given dimensions.
+	 *
+	 * @param width the width of the image, in pixels
+	 * @param height the height of the image, in pixels
+	 */
+	public OffscreenPainter(int width, int height) {
+		this.buffer = new PixelBuffer(width, height, Painter.MONOCHROME_PIXEL_OFF_RGB);
+		this.bounds = new Rectangle(0, 0, width, height);
+	}
+
+	/**
+	 * Returns the color of a pixel.
+	 *
+	 * The origin of the axes is the bottom left corner.
+	 *
+	 * @param x the column of the pixel
+	 * @param y the row of the pixel
+	 * @return the ARGB color of the pixel
+	 * @throws IndexOutOfBoundsException if the pixel is outside the image
+	 */
+	public int getRGB(int x, int y) {
+		return this.buffer.getRGB(x, y);
+	}
+
+	/**
+	 * Returns the image drawn into. Its origin is the top left corner, as
+	 * for any BufferedImage.
+	 *
+	 * @return the image backing this painter
+	 */
+	public BufferedImage getImage() {
+		return this.buffer.getImage();
+	}
+
+	@Override
+	public int getWidth() {
+		return this.buffer.getWidth();
+	}
+
+	@Override
+	public int getHeight() {
+		return this.buffer.getHeight();
+	}
+
+	@Override
+	public Rectangle getVisibleBounds() {
+		return new Rectangle(0, 0, this.buffer.getWidth(), this.buffer.getHeight());
+	}
+
+	@Override
+	public Rectangle getClipBounds() {
+		return this.bounds;
+	}
+
+	@Override
+	public void setPixel(int x, int y, boolean value) {
+		this.buffer.setPixel(x, y, Painter.rgb(value));
+	}
+
+	@Override
+	public void setPixel(int x, int y, Color color) {
+		this.buffer.setPixel(x, y, color.getRGB());
+	}
+
+	@Override
+	public void setPixel(int x, int y, int rgb) {
+		this.buffer.setPixel(x, y, rgb);
+	}
+
+	@Override
+	public void setPixels(int[] xs, int[] ys, int count, boolean value) {
+		this.buffer.setPixels(xs, ys, count, Painter.rgb(value));
+	}
+
+	@Override
+	public void setPixels(int[] xs, int[] ys, int count, int rgb) {
+		this.buffer.setPixels(xs, ys, count, rgb);
+	}
+
+	@Override
+	public void fillSpan(int y, int x0, int x1, boolean value) {
+		this.buffer.fillSpan(y, x0, x1, Painter.rgb(value));
+	}
+
+	@Override
+	public void fillSpan(int y, int x0, int x1, int rgb) {
+		this.buffer.fillSpan(y, x0, x1, rgb);
+	}
+
+	@Override
+	public void fillRect(int x0, int y0, int x1, int y1, int rgb) {
+		this.buffer.fillRect(x0, y0, x1, y1, rgb);
+	}
+
+	@Override
+	public void blit(int x, int y, int width, int height, int[] mask, int rgb) {
+		this.buffer.blit(x, y, width, height, mask, rgb);
+	}
+
+	@Override
+	public Surface clip(int x0, int y0, int x1, int y1) {
+		return this.buffer.view(x0, y0, x1, y1);
+	}
+
+	@Override
+	public void clear() {
+		this.buffer.clearDrawn();
+	}
+
+	@Override
+	public void beginFrame() {
+		this.buffer.clearDrawn();
+	}
+
+	@Override
+	public void endFrame() {
+		// nothing is displayed: the frame is complete as soon as it is drawn
+	}
+}
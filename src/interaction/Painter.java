@@ -8,7 +8,6 @@ import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
-import java.awt.image.BufferedImage;
 
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -24,10 +23,13 @@ import javax.swing.event.ChangeListener;
  * {@link #setPixel()} methods that change the value of an individual
  * pixel at a given location.
  * 
+ * It is the on-screen {@link Surface}; see {@link OffscreenPainter} for
+ * rendering without a display.
+ * 
  * @author Marc-Antoine Weisser
  * @author Christophe Jacquet
  */
-public class Painter {
+public class Painter implements Surface {
 	private static final int DEFAULT_WIDTH = 600;
 	private static final int DEFAULT_HEIGHT = 400;
 
@@ -36,10 +38,11 @@ public class Painter {
 	private static final Color MONOCHROME_PIXEL_ON = Color.BLUE;
 	private static final Color MONOCHROME_PIXEL_OFF = Color.WHITE;
 	
-	private static final int MONOCHROME_PIXEL_ON_RGB = MONOCHROME_PIXEL_ON.getRGB();
-	private static final int MONOCHROME_PIXEL_OFF_RGB = MONOCHROME_PIXEL_OFF.getRGB();
+	static final int MONOCHROME_PIXEL_ON_RGB = MONOCHROME_PIXEL_ON.getRGB();
+	static final int MONOCHROME_PIXEL_OFF_RGB = MONOCHROME_PIXEL_OFF.getRGB();
 
 	private final GridPanel grid;
+	private final Rectangle bounds;
 	
 	/**
 	 * Constructs a new painter window, of given dimensions.
@@ -49,6 +52,7 @@ public class Painter {
 	 */
 	public Painter(int width, int height) {
 		this.grid = new GridPanel(width, height);
+		this.bounds = new Rectangle(0, 0, width, height);
 		new SimpleFrame(this.grid);
 	}
 	
@@ -59,6 +63,13 @@ public class Painter {
 		this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
 	}
 
+	/**
+	 * Returns the color of "on" or "off" pixels.
+	 */
+	static int rgb(boolean value) {
+		return value ? MONOCHROME_PIXEL_ON_RGB : MONOCHROME_PIXEL_OFF_RGB;
+	}
+
 	/**
 	 * Pauses the program for 1/20 of a second.
 	 * */
@@ -96,7 +107,7 @@ public class Painter {
 	 *            {@code false} means "off")
 	 */
 	public void setPixel(int x, int y, boolean value) {
-		this.grid.setPixel(x, y, value ? MONOCHROME_PIXEL_ON_RGB : MONOCHROME_PIXEL_OFF_RGB);
+		this.grid.setPixel(x, y, rgb(value));
 	}
 	
 	/**
@@ -112,12 +123,198 @@ public class Painter {
 		this.grid.setPixel(x, y, color.getRGB());
 	}
 	
+	/**
+	 * Sets the color of a pixel, given as a packed ARGB value.
+	 * 
+	 * The origin of the axes is the bottom left corner.
+	 * 
+	 * @param x the column of the pixel
+	 * @param y the row of the pixel
+	 * @param rgb the ARGB color of the pixel, as returned by {@link Color#getRGB()}
+	 */
+	public void setPixel(int x, int y, int rgb) {
+		this.grid.setPixel(x, y, rgb);
+	}
+	
+	/**
+	 * Sets on or off a batch of pixels. Pixel {@code i} is at
+	 * ({@code xs[i]}, {@code ys[i]}); pixels outside the window are ignored.
+	 * 
+	 * The origin of the axes is the bottom left corner.
+	 * 
+	 * @param xs the columns of the pixels
+	 * @param ys the rows of the pixels
+	 * @param count the number of pixels to set
+	 * @param value the boolean value of the pixels ({@code true} means "on",
+	 *            {@code false} means "off")
+	 */
+	public void setPixels(int[] xs, int[] ys, int count, boolean value) {
+		this.grid.setPixels(xs, ys, count, rgb(value));
+	}
+	
+	/**
+	 * Sets the color of a batch of pixels. Pixel {@code i} is at
+	 * ({@code xs[i]}, {@code ys[i]}); pixels outside the window are ignored.
+	 * 
+	 * The origin of the axes is the bottom left corner.
+	 * 
+	 * @param xs the columns of the pixels
+	 * @param ys the rows of the pixels
+	 * @param count the number of pixels to set
+	 * @param rgb the ARGB color of the pixels
+	 */
+	public void setPixels(int[] xs, int[] ys, int count, int rgb) {
+		this.grid.setPixels(xs, ys, count, rgb);
+	}
+	
+	/**
+	 * Sets on or off a horizontal run of pixels, from column {@code x0} to
+	 * column {@code x1} inclusive. The run is clipped to the window once,
+	 * instead of checking every pixel.
+	 * 
+	 * The origin of the axes is the bottom left corner.
+	 * 
+	 * @param y the row of the run
+	 * @param x0 the first column of the run
+	 * @param x1 the last column of the run
+	 * @param value the boolean value of the pixels ({@code true} means "on",
+	 *            {@code false} means "off")
+	 */
+	public void fillSpan(int y, int x0, int x1, boolean value) {
+		this.grid.fillSpan(y, x0, x1, rgb(value));
+	}
+	
+	/**
+	 * Sets the color of a horizontal run of pixels, from column {@code x0}
+	 * to column {@code x1} inclusive.
+	 * 
+	 * The origin of the axes is the bottom left corner.
+	 * 
+	 * @param y the row of the run
+	 * @param x0 the first column of the run
+	 * @param x1 the last column of the run
+	 * @param rgb the ARGB color of the pixels
+	 */
+	public void fillSpan(int y, int x0, int x1, int rgb) {
+		this.grid.fillSpan(y, x0, x1, rgb);
+	}
+	
+	/**
+	 * Fills the rectangle of pixels going from ({@code x0}, {@code y0}) to
+	 * ({@code x1}, {@code y1}) inclusive. The rectangle is clipped to the
+	 * window once.
+	 * 
+	 * The origin of the axes is the bottom left corner.
+	 * 
+	 * @param x0 the first column
+	 * @param y0 the first row
+	 * @param x1 the last column
+	 * @param y1 the last row
+	 * @param rgb the ARGB color of the pixels
+	 */
+	public void fillRect(int x0, int y0, int x1, int y1, int rgb) {
+		this.grid.fillRect(x0, y0, x1, y1, rgb);
+	}
+	
+	/**
+	 * Draws a one-bit mask: every set bit of the mask is painted with the
+	 * given color, cleared bits are left untouched.
+	 * 
+	 * The mask is packed row by row, each row starting on a new
+	 * {@code int} and using {@code (width + 31) / 32} of them. Bit
+	 * {@code i % 32} of word {@code i / 32} of a row is column {@code i}.
+	 * Row 0 is the bottom row, drawn at ({@code x}, {@code y}).
+	 * 
+	 * @param x the column of the bottom left corner of the mask
+	 * @param y the row of the bottom left corner of the mask
+	 * @param width the width of the mask, in pixels
+	 * @param height the height of the mask, in pixels
+	 * @param mask the packed bits of the mask
+	 * @param rgb the ARGB color of the set pixels
+	 */
+	public void blit(int x, int y, int width, int height, int[] mask, int rgb) {
+		this.grid.blit(x, y, width, height, mask, rgb);
+	}
+	
+	/**
+	 * Returns the width of the drawing area.
+	 * 
+	 * @return the width, in pixels
+	 */
+	public int getWidth() {
+		return this.grid.width;
+	}
+	
+	/**
+	 * Returns the height of the drawing area.
+	 * 
+	 * @return the height, in pixels
+	 */
+	public int getHeight() {
+		return this.grid.height;
+	}
+	
+	/**
+	 * Returns the part of the drawing area shown in the window, which
+	 * depends on the zoom level and on the scroll bars. The origin of the
+	 * axes is the bottom left corner.
+	 * 
+	 * @return the visible rectangle, in pixels of the drawing area
+	 */
+	public Rectangle getVisibleBounds() {
+		return this.grid.visible;
+	}
+	
+	/**
+	 * Returns the whole drawing area: a painter lets every pixel through.
+	 * See {@link Surface#getClipBounds()}.
+	 * 
+	 * @return the drawing area, in pixels
+	 */
+	public Rectangle getClipBounds() {
+		return this.bounds;
+	}
+	
+	/**
+	 * Returns a view of the painter that only lets through the pixels of a
+	 * rectangle; views of disjoint rectangles can be drawn into from
+	 * several threads at once. See {@link Surface#clip(int, int, int, int)}.
+	 * 
+	 * @param x0 the first column of the rectangle
+	 * @param y0 the first row of the rectangle
+	 * @param x1 the last column of the rectangle
+	 * @param y1 the last row of the rectangle
+	 * @return the clipped view
+	 */
+	public Surface clip(int x0, int y0, int x1, int y1) {
+		return this.grid.clip(x0, y0, x1, y1);
+	}
+	
 	/**
 	 * Clears the painter window.
 	 */
 	public void clear() {
 		this.grid.clear();
 	}
+	
+	/**
+	 * Starts drawing a new frame. Until {@link #endFrame()} is called, all
+	 * drawing goes to a cleared back buffer that is never shown, so the
+	 * window keeps displaying the previous complete frame.
+	 * 
+	 * Outside of a frame, drawing goes directly to the displayed image.
+	 */
+	public void beginFrame() {
+		this.grid.beginFrame();
+	}
+	
+	/**
+	 * Ends the current frame: the back buffer atomically becomes the
+	 * displayed image.
+	 */
+	public void endFrame() {
+		this.grid.endFrame();
+	}
 
 	@SuppressWarnings("serial")
 	private class SimpleFrame extends JFrame {
@@ -134,7 +331,15 @@ public class Painter {
 			this.setDefaultCloseOperation(EXIT_ON_CLOSE);
 
 			this.setLayout(new BorderLayout());
-			this.add(new JScrollPane(this.gp), BorderLayout.CENTER);
+			final JScrollPane scrollPane = new JScrollPane(this.gp);
+			this.add(scrollPane, BorderLayout.CENTER);
+
+			// scrolling, zooming and resizing all change the viewport
+			scrollPane.getViewport().addChangeListener(new ChangeListener() {
+				public void stateChanged(ChangeEvent e) {
+					SimpleFrame.this.gp.updateVisible();
+				}
+			});
 
 			final JSlider slider = new JSlider(JSlider.HORIZONTAL, 1, 100, 1);
 
@@ -166,10 +371,30 @@ public class Painter {
 	private class GridPanel extends JPanel implements Scrollable, Runnable {
 
 		private double zoomFactor;
-		private final BufferedImage image;
+		/*
+		 * The front buffer is the one painted on screen; frames are drawn
+		 * into the back buffer and swapped in by endFrame(). The paint lock
+		 * is only taken for the swap and while painting, never per pixel:
+		 * once a swap returns, the old front buffer is no longer being
+		 * painted and can be drawn into freely.
+		 */
+		private final Object paintLock = new Object();
+		private volatile PixelBuffer front;
+		private PixelBuffer back;
+		// the buffer drawing goes to: back inside a frame, front otherwise
+		private PixelBuffer target;
+		private boolean inFrame = false;
+		// region of the image to repaint, guarded by the paint lock
+		private Rectangle dirty = null;
 		private final int height;
 		private final int width;
-		private boolean touched = true;
+		private volatile boolean touched = false;
+		/*
+		 * Part of the image shown in the scroll pane, in drawing-area
+		 * coordinates. It is computed on the event dispatch thread and
+		 * read by the drawing thread, hence volatile and never modified.
+		 */
+		private volatile Rectangle visible;
 
 		public void setSize(int size) {
 			this.zoomFactor = Math.pow(4, size * .02);
@@ -181,38 +406,108 @@ public class Painter {
 
 		public GridPanel(int width, int height) {
 			setPreferredSize(new Dimension(width, height));
-			this.image = new BufferedImage(width, height,
-					BufferedImage.TYPE_INT_ARGB);
+			this.front = new PixelBuffer(width, height, MONOCHROME_PIXEL_OFF_RGB);
+			this.back = new PixelBuffer(width, height, MONOCHROME_PIXEL_OFF_RGB);
+			this.target = this.front;
+			this.height = height;
+			this.width = width;
+			this.visible = new Rectangle(0, 0, width, height);
 			
 			setBackground(MONOCHROME_PIXEL_OFF);
 			
 			// initially the image is cleared
 			clear();
-
-			this.height = height;
-			this.width = width;
-			
-			// run updater thread
-			new Thread(this).start();
 		}
 		
-		private synchronized final void setTouched() {
-			this.touched = true;
+		/*
+		 * The flag is only written when it is not already set: between two
+		 * refreshes, drawing a whole frame costs a single volatile store and
+		 * a single request to the repaint scheduler, instead of one lock per
+		 * pixel.
+		 */
+		private final void setTouched() {
+			if(!this.touched) {
+				this.touched = true;
+				RepaintScheduler.getShared().request(this);
+			}
+		}
+		
+		/*
+		 * Drawing outside of a frame modifies the displayed image: it is
+		 * repainted as a whole. Inside a frame nothing is shown until
+		 * endFrame(), which only repaints the region that changed.
+		 */
+		private void touch() {
+			if(!this.inFrame) {
+				setTouched();
+			}
 		}
 		
 		public void clear() {
-			Graphics g = this.image.getGraphics();
-			g.setColor(MONOCHROME_PIXEL_OFF);
-			g.fillRect(0, 0, this.width, this.height);
-			setTouched();
+			this.target.clearDrawn();
+			touch();
 		}
 		
-		public void setPixel(int x, int y, int rgb) {
-			// check if the coordinates (row, col) are within bounds
-			if(x >= 0 && y >= 0 && y < this.height && x < this.width) {
-				this.image.setRGB(x, this.height - 1 - y, rgb);
-				setTouched();
+		public void beginFrame() {
+			this.inFrame = true;
+			this.target = this.back;
+			this.back.clearDrawn();
+		}
+		
+		public void endFrame() {
+			if(!this.inFrame)
+				return;
+			
+			synchronized(this.paintLock) {
+				PixelBuffer shown = this.front;
+				this.front = this.back;
+				this.back = shown;
+				
+				// what was shown before and what is shown now
+				this.dirty = union(this.dirty, union(shown.getDrawnBounds(), this.front.getDrawnBounds()));
 			}
+			this.target = this.front;
+			this.inFrame = false;
+			RepaintScheduler.getShared().request(this);
+		}
+		
+		private Rectangle union(Rectangle a, Rectangle b) {
+			if(a == null)
+				return b;
+			if(b == null)
+				return a;
+			return a.union(b);
+		}
+		
+		public void setPixel(int x, int y, int rgb) {
+			if(this.target.setPixel(x, y, rgb))
+				touch();
+		}
+
+		public void setPixels(int[] xs, int[] ys, int count, int rgb) {
+			if(this.target.setPixels(xs, ys, count, rgb))
+				touch();
+		}
+		
+		public void fillSpan(int y, int x0, int x1, int rgb) {
+			if(this.target.fillSpan(y, x0, x1, rgb))
+				touch();
+		}
+		
+		public void fillRect(int x0, int y0, int x1, int y1, int rgb) {
+			if(this.target.fillRect(x0, y0, x1, y1, rgb))
+				touch();
+		}
+		
+		public void blit(int x, int y, int maskWidth, int maskHeight, int[] mask, int rgb) {
+			if(this.target.blit(x, y, maskWidth, maskHeight, mask, rgb))
+				touch();
+		}
+		
+		public Surface clip(int x0, int y0, int x1, int y1) {
+			Surface view = this.target.view(x0, y0, x1, y1);
+			touch();
+			return view;
 		}
 
 		public void paintComponent(Graphics g) {
@@ -234,7 +529,22 @@ public class Painter {
 				g2d.scale(zf, zf);
 			}
 
-			g.drawImage(this.image, 0, 0, this.width, this.height, null);
+			// only the part of the image inside the clip, which is the
+			// repainted region when the repaint comes from endFrame()
+			int x0 = 0, y0 = 0, x1 = this.width, y1 = this.height;
+			Rectangle clip = g.getClipBounds();
+			if(clip != null) {
+				x0 = Math.max(x0, clip.x);
+				y0 = Math.max(y0, clip.y);
+				x1 = Math.min(x1, clip.x + clip.width + 1);
+				y1 = Math.min(y1, clip.y + clip.height + 1);
+			}
+			
+			if(x0 < x1 && y0 < y1) {
+				synchronized(this.paintLock) {
+					g.drawImage(this.front.getImage(), x0, y0, x1, y1, x0, y0, x1, y1, null);
+				}
+			}
 			
 			// draw pixel grid above a *6 zoom factor
 			if(zf >= 6) {
@@ -253,23 +563,61 @@ public class Painter {
 			}
 		}
 		
+		/**
+		 * Recomputes the visible part of the image; must be called on the
+		 * event dispatch thread.
+		 */
+		public void updateVisible() {
+			Rectangle view = getVisibleRect();
+			if(view.isEmpty()) {
+				// not laid out yet: everything counts as visible
+				this.visible = new Rectangle(0, 0, this.width, this.height);
+				return;
+			}
+			double zf = this.zoomFactor > 1.04 ? this.zoomFactor : 1;
+			int x0 = Math.max(0, (int) Math.floor(view.x / zf));
+			int row0 = Math.max(0, (int) Math.floor(view.y / zf));
+			int x1 = Math.min(this.width, (int) Math.ceil((view.x + view.width) / zf));
+			int row1 = Math.min(this.height, (int) Math.ceil((view.y + view.height) / zf));
+			if(x0 >= x1 || row0 >= row1) {
+				this.visible = new Rectangle(0, 0, this.width, this.height);
+				return;
+			}
+			// rows are counted from the top in the image, from the bottom here
+			this.visible = new Rectangle(x0, this.height - row1, x1 - x0, row1 - row0);
+		}
+		
+		/**
+		 * Repaints a region given in image coordinates, at the current zoom.
+		 */
+		private void repaintRegion(Rectangle region) {
+			double zf = this.zoomFactor > 1.04 ? this.zoomFactor : 1;
+			int x0 = (int) Math.floor(region.x * zf);
+			int y0 = (int) Math.floor(region.y * zf);
+			int x1 = (int) Math.ceil((region.x + region.width) * zf);
+			int y1 = (int) Math.ceil((region.y + region.height) * zf);
+			repaint(x0, y0, x1 - x0, y1 - y0);
+		}
+		
+		/**
+		 * Refreshes the panel; run by the {@link RepaintScheduler}.
+		 */
 		@Override
 		public void run() {
-			while(true) {
-				try {
-					// refresh at approx. 50 Hz
-					Thread.sleep(20);
-				} catch (InterruptedException e) {}
-				
-				boolean wasTouched;
-				synchronized(this) {
-					wasTouched = this.touched;
-					this.touched = false;
-				}
-				
-				if(wasTouched) {
-					repaint();
-				}
+			Rectangle region;
+			synchronized(this.paintLock) {
+				region = this.dirty;
+				this.dirty = null;
+			}
+			
+			// reset before repainting, so that pixels drawn in the
+			// meantime set the flag again for the next refresh
+			if(this.touched) {
+				this.touched = false;
+				repaint();
+			}
+			else if(region != null) {
+				repaintRegion(region);
 			}
 		}
 
@@ -0,0 +1,337 @@
+package interaction;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * An in-memory image together with its backing pixel array, and the
+ * bounds of what has been drawn into it since it was last cleared.
+ *
+ * Coordinates given to the drawing methods have their origin at the
+ * bottom left corner; pixels outside the image are ignored. Every method
+ * returns {@code true} if at least one pixel was written.
+ *
+ * A BufferedImage needs no windowing system, so this class can be used
+ * on headless machines.
+ */
+final class PixelBuffer {
+	private final BufferedImage image;
+	// backing array of the image, row-major from the top row
+	private final int[] pixels;
+	private final int width;
+	private final int height;
+	private final int background;
+
+	// drawn bounds, in image coordinates (row 0 at the top), inclusive;
+	// empty when minX > maxX
+	private int minX, minRow, maxX, maxRow;
+
+	public PixelBuffer(int width, int height, int background) {
+		this.image = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_ARGB);
+		this.pixels = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+		this.width = width;
+		this.height = height;
+		this.background = background;
+		Arrays.fill(this.pixels, background);
+		resetBounds();
+	}
+
+	public BufferedImage getImage() {
+		return this.image;
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+	public int getRGB(int x, int y) {
+		// an unchecked index would silently read the neighbouring row
+		if(x < 0 || y < 0 || x >= this.width || y >= this.height)
+			throw new IndexOutOfBoundsException("pixel (" + x + ", " + y + ") outside "
+					+ this.width + "x" + this.height + " image");
+		return this.pixels[(this.height - 1 - y) * this.width + x];
+	}
+
+	private void resetBounds() {
+		this.minX = Integer.MAX_VALUE;
+		this.minRow = Integer.MAX_VALUE;
+		this.maxX = Integer.MIN_VALUE;
+		this.maxRow = Integer.MIN_VALUE;
+	}
+
+	private void include(int x0, int row0, int x1, int row1) {
+		if(x0 < this.minX) this.minX = x0;
+		if(x1 > this.maxX) this.maxX = x1;
+		if(row0 < this.minRow) this.minRow = row0;
+		if(row1 > this.maxRow) this.maxRow = row1;
+	}
+
+	/**
+	 * Returns the bounds of what has been drawn since the last clear, in
+	 * image coordinates (row 0 at the top), or {@code null} if nothing was.
+	 */
+	public Rectangle getDrawnBounds() {
+		if(this.minX > this.maxX)
+			return null;
+		return new Rectangle(this.minX, this.minRow,
+				this.maxX - this.minX + 1, this.maxRow - this.minRow + 1);
+	}
+
+	/**
+	 * Clears only the part of the buffer that has been drawn into.
+	 */
+	public void clearDrawn() {
+		for(int row = this.minRow; row <= this.maxRow; row++) {
+			int start = row * this.width;
+			Arrays.fill(this.pixels, start + this.minX, start + this.maxX + 1, this.background);
+		}
+		resetBounds();
+	}
+
+	public boolean setPixel(int x, int y, int rgb) {
+		// check if the coordinates (row, col) are within bounds
+		if(x >= 0 && y >= 0 && y < this.height && x < this.width) {
+			int row = this.height - 1 - y;
+			this.pixels[row * this.width + x] = rgb;
+			include(x, row, x, row);
+			return true;
+		}
+		return false;
+	}
+
+	public boolean setPixels(int[] xs, int[] ys, int count, int rgb) {
+		final int[] pixels = this.pixels;
+		final int w = this.width, h = this.height;
+		int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+		int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+		for(int i = 0; i < count; i++) {
+			int x = xs[i], y = ys[i];
+			if(x >= 0 && y >= 0 && y < h && x < w) {
+				pixels[(h - 1 - y) * w + x] = rgb;
+				if(x < minX) minX = x;
+				if(x > maxX) maxX = x;
+				if(y < minY) minY = y;
+				if(y > maxY) maxY = y;
+			}
+		}
+		if(minX > maxX)
+			return false;
+		include(minX, h - 1 - maxY, maxX, h - 1 - minY);
+		return true;
+	}
+
+	public boolean fillSpan(int y, int x0, int x1, int rgb) {
+		if(y < 0 || y >= this.height)
+			return false;
+		if(x0 < 0)
+			x0 = 0;
+		if(x1 >= this.width)
+			x1 = this.width - 1;
+		if(x0 > x1)
+			return false;
+
+		int row = this.height - 1 - y;
+		int start = row * this.width;
+		Arrays.fill(this.pixels, start + x0, start + x1 + 1, rgb);
+		include(x0, row, x1, row);
+		return true;
+	}
+
+	public boolean fillRect(int x0, int y0, int x1, int y1, int rgb) {
+		// clip the rectangle once against the image
+		x0 = Math.max(x0, 0);
+		y0 = Math.max(y0, 0);
+		x1 = Math.min(x1, this.width - 1);
+		y1 = Math.min(y1, this.height - 1);
+		if(x0 > x1 || y0 > y1)
+			return false;
+
+		for(int row = this.height - 1 - y1; row <= this.height - 1 - y0; row++) {
+			int start = row * this.width;
+			Arrays.fill(this.pixels, start + x0, start + x1 + 1, rgb);
+		}
+		include(x0, this.height - 1 - y1, x1, this.height - 1 - y0);
+		return true;
+	}
+
+	/**
+	 * Returns a view of the buffer restricted to a rectangle, given with
+	 * the origin at the bottom left corner. The whole rectangle is counted
+	 * as drawn right away, so that views never update the drawn bounds and
+	 * views of disjoint rectangles can be used from several threads.
+	 */
+	public Surface view(int x0, int y0, int x1, int y1) {
+		x0 = Math.max(x0, 0);
+		y0 = Math.max(y0, 0);
+		x1 = Math.min(x1, this.width - 1);
+		y1 = Math.min(y1, this.height - 1);
+		if(x0 <= x1 && y0 <= y1)
+			include(x0, this.height - 1 - y1, x1, this.height - 1 - y0);
+		return new View(x0, y0, x1, y1);
+	}
+
+	public boolean blit(int x, int y, int maskWidth, int maskHeight, int[] mask, int rgb) {
+		// clip the mask once against the image
+		int colStart = Math.max(0, -x);
+		int colEnd = Math.min(maskWidth, this.width - x);
+		int rowStart = Math.max(0, -y);
+		int rowEnd = Math.min(maskHeight, this.height - y);
+		if(colStart >= colEnd || rowStart >= rowEnd)
+			return false;
+
+		final int[] pixels = this.pixels;
+		int stride = (maskWidth + 31) >>> 5;
+		for(int row = rowStart; row < rowEnd; row++) {
+			int base = row * stride;
+			int line = (this.height - 1 - (y + row)) * this.width + x;
+			for(int col = colStart; col < colEnd; col++) {
+				if((mask[base + (col >>> 5)] & (1 << (col & 31))) != 0) {
+					pixels[line + col] = rgb;
+				}
+			}
+		}
+		include(x + colStart, this.height - y - rowEnd,
+				x + colEnd - 1, this.height - 1 - y - rowStart);
+		return true;
+	}
+
+	/**
+	 * A clipped view of the buffer, see {@link #view(int, int, int, int)}.
+	 * It writes straight into the pixel array of the buffer.
+	 */
+	private class View implements Surface {
+		private final int x0, y0, x1, y1;
+		private final Rectangle bounds;
+
+		private View(int x0, int y0, int x1, int y1) {
+			this.x0 = x0;
+			this.y0 = y0;
+			this.x1 = x1;
+			this.y1 = y1;
+			this.bounds = new Rectangle(x0, y0, Math.max(0, x1 - x0 + 1), Math.max(0, y1 - y0 + 1));
+		}
+
+		@Override
+		public int getWidth() {
+			return PixelBuffer.this.width;
+		}
+
+		@Override
+		public int getHeight() {
+			return PixelBuffer.this.height;
+		}
+
+		@Override
+		public Rectangle getVisibleBounds() {
+			return new Rectangle(this.x0, this.y0, this.x1 - this.x0 + 1, this.y1 - this.y0 + 1);
+		}
+
+		@Override
+		public Rectangle getClipBounds() {
+			return this.bounds;
+		}
+
+		@Override
+		public void setPixel(int x, int y, boolean value) {
+			setPixel(x, y, Painter.rgb(value));
+		}
+
+		@Override
+		public void setPixel(int x, int y, Color color) {
+			setPixel(x, y, color.getRGB());
+		}
+
+		@Override
+		public void setPixel(int x, int y, int rgb) {
+			if(x >= this.x0 && y >= this.y0 && x <= this.x1 && y <= this.y1)
+				PixelBuffer.this.pixels[(PixelBuffer.this.height - 1 - y) * PixelBuffer.this.width + x] = rgb;
+		}
+
+		@Override
+		public void setPixels(int[] xs, int[] ys, int count, boolean value) {
+			setPixels(xs, ys, count, Painter.rgb(value));
+		}
+
+		@Override
+		public void setPixels(int[] xs, int[] ys, int count, int rgb) {
+			final int[] pixels = PixelBuffer.this.pixels;
+			final int w = PixelBuffer.this.width, h = PixelBuffer.this.height;
+			for(int i = 0; i < count; i++) {
+				int x = xs[i], y = ys[i];
+				if(x >= this.x0 && y >= this.y0 && x <= this.x1 && y <= this.y1)
+					pixels[(h - 1 - y) * w + x] = rgb;
+			}
+		}
+
+		@Override
+		public void fillSpan(int y, int x0, int x1, boolean value) {
+			fillSpan(y, x0, x1, Painter.rgb(value));
+		}
+
+		@Override
+		public void fillSpan(int y, int x0, int x1, int rgb) {
+			fillRect(x0, y, x1, y, rgb);
+		}
+
+		@Override
+		public void fillRect(int x0, int y0, int x1, int y1, int rgb) {
+			x0 = Math.max(x0, this.x0);
+			y0 = Math.max(y0, this.y0);
+			x1 = Math.min(x1, this.x1);
+			y1 = Math.min(y1, this.y1);
+			for(int y = y0; y <= y1; y++) {
+				int start = (PixelBuffer.this.height - 1 - y) * PixelBuffer.this.width;
+				if(x0 <= x1)
+					Arrays.fill(PixelBuffer.this.pixels, start + x0, start + x1 + 1, rgb);
+			}
+		}
+
+		@Override
+		public void blit(int x, int y, int maskWidth, int maskHeight, int[] mask, int rgb) {
+			int colStart = Math.max(0, this.x0 - x);
+			int colEnd = Math.min(maskWidth, this.x1 + 1 - x);
+			int rowStart = Math.max(0, this.y0 - y);
+			int rowEnd = Math.min(maskHeight, this.y1 + 1 - y);
+
+			final int[] pixels = PixelBuffer.this.pixels;
+			int stride = (maskWidth + 31) >>> 5;
+			for(int row = rowStart; row < rowEnd; row++) {
+				int base = row * stride;
+				int line = (PixelBuffer.this.height - 1 - (y + row)) * PixelBuffer.this.width + x;
+				for(int col = colStart; col < colEnd; col++) {
+					if((mask[base + (col >>> 5)] & (1 << (col & 31))) != 0) {
+						pixels[line + col] = rgb;
+					}
+				}
+			}
+		}
+
+		@Override
+		public Surface clip(int x0, int y0, int x1, int y1) {
+			return new View(Math.max(x0, this.x0), Math.max(y0, this.y0),
+					Math.min(x1, this.x1), Math.min(y1, this.y1));
+		}
+
+		@Override
+		public void clear() {
+			fillRect(this.x0, this.y0, this.x1, this.y1, PixelBuffer.this.background);
+		}
+
+		@Override
+		public void beginFrame() {
+			// frames belong to the surface the view was taken from
+		}
+
+		@Override
+		public void endFrame() {
+		}
+	}
+}
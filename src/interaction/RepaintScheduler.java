@@ -0,0 +1,117 @@
+package interaction;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The RepaintScheduler runs repaint requests coming from any number of
+ * painters on a single shared thread, at most once per frame period.
+ *
+ * Requests made while a refresh is already pending are coalesced: a
+ * painter that touches thousands of pixels between two refreshes is only
+ * refreshed once. When no request is pending, no thread is running; the
+ * scheduler thread is a daemon and never keeps the JVM alive.
+ */
+public final class RepaintScheduler {
+	private static final int DEFAULT_FPS = 50;
+
+	// the scheduler thread stops after this delay without requests
+	private static final long IDLE_TIMEOUT_MILLIS = 1000;
+
+	private static final RepaintScheduler SHARED = new RepaintScheduler(DEFAULT_FPS);
+
+	private final ScheduledThreadPoolExecutor executor;
+	private final Set<Runnable> pending = new LinkedHashSet<Runnable>();
+	private boolean scheduled = false;
+	// System.nanoTime() at the last flush; its origin is arbitrary, so it is
+	// set one period back at construction for the first request to run at once
+	private long lastRefresh;
+	private volatile long periodNanos;
+
+	/**
+	 * Creates a new scheduler. Most programs should use
+	 * {@link #getShared()} instead.
+	 *
+	 * @param fps the maximal number of refreshes per second
+	 */
+	public RepaintScheduler(int fps) {
+		setTargetFps(fps);
+		this.lastRefresh = System.nanoTime() - this.periodNanos;
+		this.executor = new ScheduledThreadPoolExecutor(1, task -> {
+			Thread thread = new Thread(task, "Painter repaint scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.setKeepAliveTime(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Returns the scheduler shared by all painters.
+	 *
+	 * @return the shared scheduler
+	 */
+	public static RepaintScheduler getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Sets the maximal number of refreshes per second.
+	 *
+	 * @param fps the number of refreshes per second, at least 1
+	 */
+	public void setTargetFps(int fps) {
+		if(fps < 1)
+			throw new IllegalArgumentException("fps must be at least 1: " + fps);
+		this.periodNanos = TimeUnit.SECONDS.toNanos(1) / fps;
+	}
+
+	/**
+	 * Asks for {@code refresh} to be run at the next frame. Asking again
+	 * before it has run has no further effect.
+	 *
+	 * @param refresh the refresh to run, typically a repaint
+	 */
+	public void request(Runnable refresh) {
+		synchronized(this.pending) {
+			if(!this.pending.add(refresh) || this.scheduled)
+				return;
+
+			this.scheduled = true;
+			long wait = this.lastRefresh + this.periodNanos - System.nanoTime();
+			try {
+				this.executor.schedule(this::flush, Math.max(0, wait), TimeUnit.NANOSECONDS);
+			}
+			catch(RejectedExecutionException e) {
+				// the scheduler has been shut down: requests are dropped
+				this.pending.clear();
+				this.scheduled = false;
+			}
+		}
+	}
+
+	private void flush() {
+		Runnable[] refreshes;
+		synchronized(this.pending) {
+			refreshes = this.pending.toArray(new Runnable[this.pending.size()]);
+			this.pending.clear();
+			this.scheduled = false;
+			this.lastRefresh = System.nanoTime();
+		}
+
+		for(Runnable refresh : refreshes) {
+			refresh.run();
+		}
+	}
+
+	/**
+	 * Stops the scheduler. Pending requests are still run, later ones are
+	 * ignored.
+	 */
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+}
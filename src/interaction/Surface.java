@@ -0,0 +1,190 @@
+package interaction;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+
+/**
+ * A Surface is a grid of pixels that shapes can be drawn into.
+ *
+ * The origin of the axes is the bottom left corner. Pixels outside the
+ * surface are silently ignored. Colors are either a boolean ("on" or
+ * "off") or a packed ARGB value, as returned by {@link Color#getRGB()}.
+ *
+ * Two implementations are provided: {@link Painter}, which displays the
+ * pixels in a window, and {@link OffscreenPainter}, which keeps them in
+ * memory and needs no display.
+ */
+public interface Surface {
+
+	/**
+	 * Returns the width of the surface.
+	 *
+	 * @return the width, in pixels
+	 */
+	int getWidth();
+
+	/**
+	 * Returns the height of the surface.
+	 *
+	 * @return the height, in pixels
+	 */
+	int getHeight();
+
+	/**
+	 * Returns the part of the surface that can currently be seen, for
+	 * instance the scrolled viewport of a zoomed window. Its {@code x} and
+	 * {@code y} are the first column and row, from the bottom left corner.
+	 *
+	 * Drawing outside of this rectangle is still allowed: it only shows
+	 * once the rectangle moves over it.
+	 *
+	 * @return the visible rectangle
+	 */
+	Rectangle getVisibleBounds();
+
+	/**
+	 * Returns the rectangle of pixels that this surface lets through: the
+	 * whole surface, or the rectangle of a view returned by
+	 * {@link #clip(int, int, int, int)}. Its {@code x} and {@code y} are
+	 * the first column and row, from the bottom left corner.
+	 *
+	 * Pixels outside of it are ignored anyway; rasterizers use it to skip
+	 * the work for them. The rectangle may be shared and must not be
+	 * modified.
+	 *
+	 * @return the clip rectangle
+	 */
+	Rectangle getClipBounds();
+
+	/**
+	 * Sets a pixel on or off.
+	 *
+	 * @param x the column of the pixel
+	 * @param y the row of the pixel
+	 * @param value the boolean value of the pixel ({@code true} means "on",
+	 *            {@code false} means "off")
+	 */
+	void setPixel(int x, int y, boolean value);
+
+	/**
+	 * Sets the color of a pixel.
+	 *
+	 * @param x the column of the pixel
+	 * @param y the row of the pixel
+	 * @param color the color of the pixel
+	 */
+	void setPixel(int x, int y, Color color);
+
+	/**
+	 * Sets the color of a pixel, given as a packed ARGB value.
+	 *
+	 * @param x the column of the pixel
+	 * @param y the row of the pixel
+	 * @param rgb the ARGB color of the pixel
+	 */
+	void setPixel(int x, int y, int rgb);
+
+	/**
+	 * Sets on or off a batch of pixels; pixel {@code i} is at
+	 * ({@code xs[i]}, {@code ys[i]}).
+	 *
+	 * @param xs the columns of the pixels
+	 * @param ys the rows of the pixels
+	 * @param count the number of pixels to set
+	 * @param value the boolean value of the pixels
+	 */
+	void setPixels(int[] xs, int[] ys, int count, boolean value);
+
+	/**
+	 * Sets the color of a batch of pixels; pixel {@code i} is at
+	 * ({@code xs[i]}, {@code ys[i]}).
+	 *
+	 * @param xs the columns of the pixels
+	 * @param ys the rows of the pixels
+	 * @param count the number of pixels to set
+	 * @param rgb the ARGB color of the pixels
+	 */
+	void setPixels(int[] xs, int[] ys, int count, int rgb);
+
+	/**
+	 * Sets on or off the pixels of row {@code y}, from column {@code x0} to
+	 * column {@code x1} inclusive.
+	 *
+	 * @param y the row of the run
+	 * @param x0 the first column of the run
+	 * @param x1 the last column of the run
+	 * @param value the boolean value of the pixels
+	 */
+	void fillSpan(int y, int x0, int x1, boolean value);
+
+	/**
+	 * Sets the color of the pixels of row {@code y}, from column
+	 * {@code x0} to column {@code x1} inclusive.
+	 *
+	 * @param y the row of the run
+	 * @param x0 the first column of the run
+	 * @param x1 the last column of the run
+	 * @param rgb the ARGB color of the pixels
+	 */
+	void fillSpan(int y, int x0, int x1, int rgb);
+
+	/**
+	 * Fills the rectangle of pixels going from ({@code x0}, {@code y0}) to
+	 * ({@code x1}, {@code y1}) inclusive.
+	 *
+	 * @param x0 the first column
+	 * @param y0 the first row
+	 * @param x1 the last column
+	 * @param y1 the last row
+	 * @param rgb the ARGB color of the pixels
+	 */
+	void fillRect(int x0, int y0, int x1, int y1, int rgb);
+
+	/**
+	 * Draws a one-bit mask, packed as described in
+	 * {@link Painter#blit(int, int, int, int, int[], int)}.
+	 *
+	 * @param x the column of the bottom left corner of the mask
+	 * @param y the row of the bottom left corner of the mask
+	 * @param width the width of the mask, in pixels
+	 * @param height the height of the mask, in pixels
+	 * @param mask the packed bits of the mask
+	 * @param rgb the ARGB color of the set pixels
+	 */
+	void blit(int x, int y, int width, int height, int[] mask, int rgb);
+
+	/**
+	 * Returns a view of this surface that only lets through the pixels of
+	 * the rectangle going from ({@code x0}, {@code y0}) to ({@code x1},
+	 * {@code y1}) inclusive. The view has the same width and height as
+	 * this surface, so a shape drawn into it is rasterized exactly as it
+	 * would be into the surface itself.
+	 *
+	 * Views of disjoint rectangles can be drawn into concurrently, from
+	 * different threads, without any locking. A view is only valid until
+	 * the next {@link #beginFrame()} or {@link #endFrame()}.
+	 *
+	 * @param x0 the first column of the rectangle
+	 * @param y0 the first row of the rectangle
+	 * @param x1 the last column of the rectangle
+	 * @param y1 the last row of the rectangle
+	 * @return the clipped view
+	 */
+	Surface clip(int x0, int y0, int x1, int y1);
+
+	/**
+	 * Clears the surface.
+	 */
+	void clear();
+
+	/**
+	 * Starts drawing a new frame into a cleared surface.
+	 */
+	void beginFrame();
+
+	/**
+	 * Ends the current frame, which becomes the visible content of the
+	 * surface.
+	 */
+	void endFrame();
+}
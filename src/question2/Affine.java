@@ -0,0 +1,146 @@
+package question2;
+
+// Transformation affine du plan :
+//   x' = m00*x + m01*y + m02
+//   y' = m10*x + m11*y + m12
+// Les instances sont immuables ; compose et then renvoient une nouvelle transformation
+public class Affine {
+	private static final Affine IDENTITE = new Affine(1, 0, 0, 0, 1, 0);
+
+	private final double m00, m01, m02;
+	private final double m10, m11, m12;
+
+	public Affine(double m00, double m01, double m02, double m10, double m11, double m12) {
+		this.m00 = m00;
+		this.m01 = m01;
+		this.m02 = m02;
+		this.m10 = m10;
+		this.m11 = m11;
+		this.m12 = m12;
+	}
+
+	public static Affine identity() {
+		return IDENTITE;
+	}
+
+	public static Affine translation(double dx, double dy) {
+		return new Affine(1, 0, dx, 0, 1, dy);
+	}
+
+	public static Affine translation(Vector vect) {
+		return translation(vect.getX(), vect.getY());
+	}
+
+	public static Affine rotation(double angle) {
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		return new Affine(cos, -sin, 0, sin, cos, 0);
+	}
+
+	// rotation autour du point (cx, cy) : translate(-c), rotate, translate(c) en une seule matrice
+	public static Affine rotation(double cx, double cy, double angle) {
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		return new Affine(cos, -sin, cx - cx*cos + cy*sin,
+				sin, cos, cy - cx*sin - cy*cos);
+	}
+
+	public static Affine rotation(Point centre, double angle) {
+		return rotation(centre.getX(), centre.getY(), angle);
+	}
+
+	public static Affine scale(double sx, double sy) {
+		return new Affine(sx, 0, 0, 0, sy, 0);
+	}
+
+	public static Affine shear(double shx, double shy) {
+		return new Affine(1, shx, 0, shy, 1, 0);
+	}
+
+	// renvoie this o autre : on applique d'abord autre, puis this
+	public Affine compose(Affine autre) {
+		return new Affine(
+				this.m00*autre.m00 + this.m01*autre.m10,
+				this.m00*autre.m01 + this.m01*autre.m11,
+				this.m00*autre.m02 + this.m01*autre.m12 + this.m02,
+				this.m10*autre.m00 + this.m11*autre.m10,
+				this.m10*autre.m01 + this.m11*autre.m11,
+				this.m10*autre.m02 + this.m11*autre.m12 + this.m12);
+	}
+
+	// renvoie suivante o this : on applique d'abord this, puis suivante
+	public Affine then(Affine suivante) {
+		return suivante.compose(this);
+	}
+
+	public Affine inverse() {
+		double det = this.determinant();
+		if(det == 0)
+			throw new ArithmeticException("transformation non inversible");
+		double i00 = this.m11 / det, i01 = -this.m01 / det;
+		double i10 = -this.m10 / det, i11 = this.m00 / det;
+		return new Affine(i00, i01, -(i00*this.m02 + i01*this.m12),
+				i10, i11, -(i10*this.m02 + i11*this.m12));
+	}
+
+	public double determinant() {
+		return this.m00*this.m11 - this.m01*this.m10;
+	}
+
+	public double transformX(double x, double y) {
+		return this.m00*x + this.m01*y + this.m02;
+	}
+
+	public double transformY(double x, double y) {
+		return this.m10*x + this.m11*y + this.m12;
+	}
+
+	public double getM00() {
+		return this.m00;
+	}
+
+	public double getM01() {
+		return this.m01;
+	}
+
+	public double getM02() {
+		return this.m02;
+	}
+
+	public double getM10() {
+		return this.m10;
+	}
+
+	public double getM11() {
+		return this.m11;
+	}
+
+	public double getM12() {
+		return this.m12;
+	}
+
+	// égalité des six coefficients (au sens de Double.equals)
+	public boolean equals(Object o) {
+		if(this == o)
+			return true;
+		if(!(o instanceof Affine))
+			return false;
+		Affine a = (Affine) o;
+		return Double.compare(this.m00, a.m00) == 0 && Double.compare(this.m01, a.m01) == 0
+				&& Double.compare(this.m02, a.m02) == 0 && Double.compare(this.m10, a.m10) == 0
+				&& Double.compare(this.m11, a.m11) == 0 && Double.compare(this.m12, a.m12) == 0;
+	}
+
+	public int hashCode() {
+		int h = Double.hashCode(this.m00);
+		h = 31*h + Double.hashCode(this.m01);
+		h = 31*h + Double.hashCode(this.m02);
+		h = 31*h + Double.hashCode(this.m10);
+		h = 31*h + Double.hashCode(this.m11);
+		return 31*h + Double.hashCode(this.m12);
+	}
+
+	public String toString() {
+		return "[[" + m00 + "," + m01 + "," + m02 + "],[" + m10 + "," + m11 + "," + m12 + "]]";
+	}
+}
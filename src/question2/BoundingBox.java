@@ -0,0 +1,98 @@
+package question2;
+
+// Boîte englobante alignée sur les axes : [minX, maxX] x [minY, maxY]
+public class BoundingBox {
+	private final double minX;
+	private final double minY;
+	private final double maxX;
+	private final double maxY;
+
+	public BoundingBox(double minX, double minY, double maxX, double maxY) {
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	// boîte des points (xs[i], ys[i]) pour i dans [0, n[
+	public static BoundingBox of(double[] xs, double[] ys, int n) {
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for(int i = 0 ; i < n ; i++) {
+			double x = xs[i], y = ys[i];
+			if(x < minX) minX = x;
+			if(x > maxX) maxX = x;
+			if(y < minY) minY = y;
+			if(y > maxY) maxY = y;
+		}
+		return new BoundingBox(minX, minY, maxX, maxY);
+	}
+
+	public double getMinX() {
+		return this.minX;
+	}
+
+	public double getMinY() {
+		return this.minY;
+	}
+
+	public double getMaxX() {
+		return this.maxX;
+	}
+
+	public double getMaxY() {
+		return this.maxY;
+	}
+
+	public boolean isEmpty() {
+		return this.minX > this.maxX || this.minY > this.maxY;
+	}
+
+	public boolean intersects(BoundingBox b) {
+		return this.minX <= b.maxX && b.minX <= this.maxX
+				&& this.minY <= b.maxY && b.minY <= this.maxY;
+	}
+
+	public boolean contains(double x, double y) {
+		return x >= this.minX && x <= this.maxX && y >= this.minY && y <= this.maxY;
+	}
+
+	public BoundingBox union(BoundingBox b) {
+		return new BoundingBox(Math.min(this.minX, b.minX), Math.min(this.minY, b.minY),
+				Math.max(this.maxX, b.maxX), Math.max(this.maxY, b.maxY));
+	}
+
+	public BoundingBox translate(double dx, double dy) {
+		return new BoundingBox(this.minX + dx, this.minY + dy, this.maxX + dx, this.maxY + dy);
+	}
+
+	// boîte englobant l'image des quatre coins par t : elle contient l'image
+	// de tout ce qui était dans cette boîte, sans être forcément minimale
+	public BoundingBox transform(Affine t) {
+		double x0 = t.transformX(this.minX, this.minY), y0 = t.transformY(this.minX, this.minY);
+		double x1 = t.transformX(this.maxX, this.minY), y1 = t.transformY(this.maxX, this.minY);
+		double x2 = t.transformX(this.maxX, this.maxY), y2 = t.transformY(this.maxX, this.maxY);
+		double x3 = t.transformX(this.minX, this.maxY), y3 = t.transformY(this.minX, this.maxY);
+		return new BoundingBox(Math.min(Math.min(x0, x1), Math.min(x2, x3)),
+				Math.min(Math.min(y0, y1), Math.min(y2, y3)),
+				Math.max(Math.max(x0, x1), Math.max(x2, x3)),
+				Math.max(Math.max(y0, y1), Math.max(y2, y3)));
+	}
+
+	// même résultat que transform(t).intersects(new BoundingBox(x0, y0, x1, y1)),
+	// sans créer de boîte : sert à écarter les éléments invisibles à chaque image
+	boolean imageRencontre(Affine t, double x0, double y0, double x1, double y1) {
+		double ax = t.transformX(this.minX, this.minY), ay = t.transformY(this.minX, this.minY);
+		double bx = t.transformX(this.maxX, this.minY), by = t.transformY(this.maxX, this.minY);
+		double cx = t.transformX(this.maxX, this.maxY), cy = t.transformY(this.maxX, this.maxY);
+		double dx = t.transformX(this.minX, this.maxY), dy = t.transformY(this.minX, this.maxY);
+		return Math.max(Math.max(ax, bx), Math.max(cx, dx)) >= x0
+				&& Math.min(Math.min(ax, bx), Math.min(cx, dx)) <= x1
+				&& Math.max(Math.max(ay, by), Math.max(cy, dy)) >= y0
+				&& Math.min(Math.min(ay, by), Math.min(cy, dy)) <= y1;
+	}
+
+	public String toString() {
+		return "[" + this.minX + "," + this.maxX + "]x[" + this.minY + "," + this.maxY + "]";
+	}
+}
@@ -1,74 +1,271 @@
 package question2;
 
-import interaction.Painter;
+import java.util.Arrays;
+
+import interaction.Surface;
 
 public class Cercle extends Forme {
+	private static final int LOT = 4096;
+	// nombre de points de l'octant à partir duquel un contour qui déborde de
+	// la zone est découpé
+	private static final int OCTANT_DECOUPE = 32;
+
 	private Point centre;
 	private double r;
+	private boolean rempli = false;
 	
 	public Cercle(Point c, double r) {
 		this.centre = c;
 		this.r = r;
 	}
 	
-	public double perimetre() {
+	protected double calculerPerimetre() {
 		return 2 * Math.PI * this.r;
 	}
 	
-	//Algorithme de dessin du cercle point médian
-	public void draw(Painter painter) {
-		int x = (int)this.r, y = 0; 
-		double x_centre = this.centre.getX();
-		double y_centre = this.centre.getY();
-        // on dessine le premier point 
-        // après translation
-        painter.setPixel((int)(x + x_centre)  
-                ,(int)(y + y_centre) , true); 
-      
-        // si r > 0, on affiche un seul point 
-        if (r > 0){
-            painter.setPixel((int)(x + x_centre), (int)(-y + y_centre) , true);                  
-            painter.setPixel((int)(y + x_centre),(int) (x + y_centre) , true);                    
-            painter.setPixel((int) (-y + x_centre),(int) (x + y_centre) ,true); 
-        } 
+	protected double calculerAire() {
+		return Math.PI * this.r * this.r;
+	}
+	
+	public boolean estRempli() {
+		return this.rempli;
+	}
+	
+	// rempli : le disque est dessiné, une ligne horizontale par rangée de pixels
+	public void setRempli(boolean rempli) {
+		this.rempli = rempli;
+	}
+	
+	public void draw(Surface painter) {
+		draw(painter, this.centre.getX(), this.centre.getY(), this.r, this.rempli);
+	}
+	
+	public void draw(Surface painter, Affine t) {
+		double x = this.centre.getX(), y = this.centre.getY();
+		draw(painter, t.transformX(x, y), t.transformY(x, y), this.r * Math.sqrt(Math.abs(t.determinant())), this.rempli);
+	}
+	
+	// Le centre est ramené une seule fois à un pixel (vers le bas, comme les
+	// conversions (int) des coordonnées positives), le reste du tracé est
+	// en arithmétique entière. Un cercle qui ne touche pas la zone que laisse
+	// passer la surface (la surface entière, ou une tuile de TileRenderer)
+	// n'est pas tracé.
+	private static void draw(Surface painter, double xCentre, double yCentre, double rayon, boolean rempli) {
+		java.awt.Rectangle zone = painter.getClipBounds();
+		int x0 = zone.x, y0 = zone.y, x1 = zone.x + zone.width, y1 = zone.y + zone.height;
+		if(xCentre + rayon < x0 - 1 || xCentre - rayon > x1 || yCentre + rayon < y0 - 1 || yCentre - rayon > y1)
+			return;
+		int cx = (int) Math.floor(xCentre), cy = (int) Math.floor(yCentre), r = (int) rayon;
+		if(rempli)
+			disque(painter, cx, cy, r, Math.max(0, y0), Math.min(painter.getHeight(), y1) - 1);
+		else
+			contour(painter, cx, cy, r, x0, y0, x1, y1);
+	}
+	
+	// Une ligne par rangée : la demi-largeur de la rangée dy est le plus
+	// grand dx avec dx² + dy² <= r² + r, ce qui contient les pixels du contour.
+	// Les demi-largeurs viennent de CircleCache ; si le rayon est trop grand
+	// pour y tenir, seules celles des rangées ligneMin à ligneMax sont calculées.
+	private static void disque(Surface painter, int cx, int cy, int r, int ligneMin, int ligneMax) {
+		int[] demiLargeurs = CircleCache.rangees(r);
+		int yMin = Math.max(ligneMin, cy - r), yMax = Math.min(ligneMax, cy + r);
+		for(int y = yMin ; y <= yMax ; y++) {
+			int dy = Math.abs(y - cy);
+			long dx = demiLargeurs != null ? demiLargeurs[dy] : demiLargeur(r, dy);
+			painter.fillSpan(y, (int) Math.max(Integer.MIN_VALUE, cx - dx), (int) Math.min(Integer.MAX_VALUE, cx + dx), true);
+		}
+	}
+	
+	static int demiLargeur(int r, int dy) {
+		long reste = (long) r * r + r - (long) dy * dy;
+		long dx = (long) Math.sqrt((double) reste);
+		// la racine en double peut être fausse d'une unité pour les grands rayons
+		while(dx * dx > reste)
+			dx--;
+		while((dx + 1) * (dx + 1) <= reste)
+			dx++;
+		return (int) dx;
+	}
+	
+	// Le contour est l'octant de CircleCache, translaté au centre et reproduit
+	// par symétrie dans les huit octants. Si un grand cercle déborde de la
+	// zone [x0, x1[ x [y0, y1[, seuls les points de chaque octant qui tombent
+	// dans la zone sont envoyés.
+	private static void contour(Surface painter, int cx, int cy, int r, int x0, int y0, int x1, int y1) {
+		// zone entièrement à l'intérieur du cercle : le contour ne s'y voit pas
+		long gx = Math.max(Math.abs((long) cx - x0), Math.abs((long) cx - x1));
+		long gy = Math.max(Math.abs((long) cy - y0), Math.abs((long) cy - y1));
+		if(r > 1 && gx * gx + gy * gy < (long) (r - 1) * (r - 1))
+			return;
+		if(r <= 0) {
+			painter.setPixel(cx + r, cy, true);
+			return;
+		}
+		
+		int[] octant = CircleCache.octant(r);
+		// pour un petit cercle, les points hors de la zone coûtent moins que les recherches
+		if(octant.length > 2 * OCTANT_DECOUPE
+				&& ((long) cx - r < x0 || (long) cx + r >= x1 || (long) cy - r < y0 || (long) cy + r >= y1)) {
+			contourDecoupe(painter, octant, cx, cy, r, x0, y0, x1 - 1, y1 - 1);
+			return;
+		}
+		
+		PixelBatch batch = PixelBatch.get();
+		batch.reserve(LOT);
+		int[] bx = batch.xs(), by = batch.ys();
+		int n = 0;
+		
+		// le premier point, (r, 0), ne donne que les quatre points cardinaux
+		bx[n] = cx + r; by[n++] = cy;
+		bx[n] = cx - r; by[n++] = cy;
+		bx[n] = cx; by[n++] = cy + r;
+		bx[n] = cx; by[n++] = cy - r;
+		for(int k = 2 ; k < octant.length ; k += 2) {
+			int x = octant[k], y = octant[k + 1];
+			if(n + 8 > LOT) {
+				batch.flush(painter, n);
+				batch.reserve(LOT);
+				n = 0;
+			}
+			bx[n] = cx + x; by[n++] = cy + y;
+			bx[n] = cx - x; by[n++] = cy + y;
+			bx[n] = cx + x; by[n++] = cy - y;
+			bx[n] = cx - x; by[n++] = cy - y;
+			// sur la diagonale x = y, les quatre autres sont les mêmes
+			if(x != y) {
+				bx[n] = cx + y; by[n++] = cy + x;
+				bx[n] = cx - y; by[n++] = cy + x;
+				bx[n] = cx + y; by[n++] = cy - x;
+				bx[n] = cx - y; by[n++] = cy - x;
+			}
+		}
+		batch.flush(painter, n);
+	}
+	
+	// Contour d'un cercle qui déborde de la zone [x0, x1] x [y0, y1] (bornes
+	// comprises). Dans chacun des huit octants, le point k de la table devient
+	// (cx + su * u, cy + sv * v), avec (u, v) = (x, y) ou (y, x) : x décroît
+	// et y croît avec k, donc les k dont le point est dans la zone se suivent
+	// et sont trouvés par dichotomie. Un point de la diagonale peut être
+	// envoyé deux fois.
+	private static void contourDecoupe(Surface painter, int[] octant, int cx, int cy, int r, int x0, int y0, int x1, int y1) {
+		PixelBatch batch = PixelBatch.get();
+		batch.reserve(LOT);
+		int[] bx = batch.xs(), by = batch.ys();
+		int n = 0;
+		
+		int[] cardinauxX = {cx + r, cx - r, cx, cx};
+		int[] cardinauxY = {cy, cy, cy + r, cy - r};
+		for(int i = 0 ; i < 4 ; i++) {
+			if(cardinauxX[i] >= x0 && cardinauxX[i] <= x1 && cardinauxY[i] >= y0 && cardinauxY[i] <= y1) {
+				bx[n] = cardinauxX[i];
+				by[n++] = cardinauxY[i];
+			}
+		}
+		
+		for(int image = 0 ; image < 8 ; image++) {
+			int su = (image & 1) == 0 ? 1 : -1;
+			int sv = (image & 2) == 0 ? 1 : -1;
+			// composante de la table donnant u : 0 pour x, 1 pour y
+			int cu = image >> 2;
+			long uMin = su > 0 ? (long) x0 - cx : (long) cx - x1, uMax = su > 0 ? (long) x1 - cx : (long) cx - x0;
+			long vMin = sv > 0 ? (long) y0 - cy : (long) cy - y1, vMax = sv > 0 ? (long) y1 - cy : (long) cy - y0;
+			int debut = Math.max(debut(octant, cu, uMin, uMax), debut(octant, 1 - cu, vMin, vMax));
+			int fin = Math.min(fin(octant, cu, uMin, uMax), fin(octant, 1 - cu, vMin, vMax));
+			for(int k = debut ; k <= fin ; k++) {
+				if(n == LOT) {
+					batch.flush(painter, n);
+					batch.reserve(LOT);
+					n = 0;
+				}
+				bx[n] = cx + su * octant[2 * k + cu];
+				by[n++] = cy + sv * octant[2 * k + 1 - cu];
+			}
+		}
+		batch.flush(painter, n);
+	}
+	
+	// premier indice k >= 1 dont la composante c (0 : x, décroissant ;
+	// 1 : y, croissant) est dans [min, max]
+	private static int debut(int[] octant, int c, long min, long max) {
+		return c == 1 ? premier(octant, c, true, min) : premier(octant, c, false, max);
+	}
+	
+	// dernier indice k >= 1 dont la composante c est dans [min, max]
+	private static int fin(int[] octant, int c, long min, long max) {
+		return (c == 1 ? premier(octant, c, true, max + 1) : premier(octant, c, false, min - 1)) - 1;
+	}
+	
+	// premier indice k >= 1 tel que octant[2k + c] >= v (croissant) ou
+	// <= v (sinon), le nombre de points s'il n'y en a pas
+	private static int premier(int[] octant, int c, boolean croissant, long v) {
+		int bas = 1, haut = octant.length / 2;
+		while(bas < haut) {
+			int milieu = (bas + haut) >>> 1;
+			long w = octant[2 * milieu + c];
+			if(croissant ? w >= v : w <= v)
+				haut = milieu;
+			else
+				bas = milieu + 1;
+		}
+		return bas;
+	}
+	
+	// Algorithme du point médian sur le premier octant, de (r, 0) jusqu'à la
+	// diagonale : les points sont à la suite, x0, y0, x1, y1...
+	static int[] octant(int r) {
+		int[] points = new int[2 * (int) (r / Math.sqrt(2) + 2)];
+		int n = 0;
+		int x = r, y = 0;
+		points[n++] = x;
+		points[n++] = y;
+		int p = 1 - r;
+		while(x > y) {
+			y++;
+			// point médian sur le périmètre ou dans le cercle
+			if(p <= 0)
+				p += 2 * y + 1;
+			// point médian à l'extérieur
+			else {
+				x--;
+				p += 2 * y - 2 * x + 1;
+			}
+			if(x < y)
+				break;
+			if(n == points.length)
+				points = Arrays.copyOf(points, 2 * n);
+			points[n++] = x;
+			points[n++] = y;
+		}
+		return Arrays.copyOf(points, n);
+	}
 
-        int P = 1 - (int)r; 
-        while (x > y) { 
-            y++; 
-            // point médian est sur le périmètre ou dans le cercle
-            if (P <= 0) 
-                P = P + 2 * y + 1;
-            // point médian est dehors le périmètre
-            else { 
-                x--; 
-                P = P + 2 * y - 2 * x + 1; 
-            } 
-            // si tout les points sont affichés
-            if (x < y) 
-                break;
-            // Impression du point généré et de sa réflexion 
-            // dans les autres octants après translation
-            painter.setPixel((int)(x + x_centre),(int)(y + y_centre) , true);                       
-            painter.setPixel((int) (-x + x_centre),(int) (y + y_centre), true);                       
-            painter.setPixel((int) (x + x_centre) ,(int) (-y + y_centre) , true);                       
-            painter.setPixel((int) (-x + x_centre),(int)(-y + y_centre) , true); 
-            // si le point affiché est sur la ligne
-            // x = y alors les points du périmètre
-            // sont tous affichés sinon..
-            if (x != y) { 
-            	painter.setPixel((int) (y + x_centre),(int) (x + y_centre) , true);  
-            	painter.setPixel((int) (-y + x_centre),(int) (x + y_centre), true);        
-            	painter.setPixel((int) (y + x_centre),(int) (-x + y_centre) , true);               
-            	painter.setPixel((int) (-y + x_centre),(int)(-x + y_centre) , true); 
-            } 
-        } 
-    }
+	protected BoundingBox calculerBornes() {
+		double x = this.centre.getX(), y = this.centre.getY();
+		return new BoundingBox(x - this.r, y - this.r, x + this.r, y + this.r);
+	}
 
 	public void translate(Vector vect) {
 		this.centre.translate(vect);
+		this.decalerBornes(vect.getX(), vect.getY());
 	}
 	
 	public void rotate(double angle) {
 		this.centre.rotate(angle);
+		this.invaliderBornes();
+	}
+	
+	// le rayon suit le facteur d'échelle moyen de la transformation
+	// (un cercle ne reste un cercle que pour une similitude)
+	public void transform(Affine t) {
+		this.centre.transform(t);
+		this.r *= Math.sqrt(Math.abs(t.determinant()));
+		this.invaliderBornes();
+		this.invaliderMesures();
+	}
+	
+	// le centre peut être partagé et déplacé sans passer par le cercle
+	protected int etatDependances() {
+		return this.centre.getModifications();
 	}
 }
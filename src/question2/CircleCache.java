@@ -0,0 +1,169 @@
+package question2;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Tables précalculées des cercles, par rayon entier, partagées par tous les
+// cercles et tous les threads : l'octant du contour (Cercle.octant) et les
+// demi-largeurs des rangées du disque (Cercle.demiLargeur). Tracer un
+// cercle dont le rayon a déjà servi revient à translater sa table.
+//
+// Une recherche ne prend aucun verrou : les tables sont dans une
+// ConcurrentHashMap et les compteurs sont des LongAdder, si bien que les
+// threads de TileRenderer ne se gênent pas. Seuls l'ajout d'une table et
+// les retraits passent par le verrou de la classe.
+//
+// Les tables sont retirées dès que la mémoire occupée dépasse la capacité,
+// dans l'ordre d'ajout, mais une table utilisée depuis son dernier passage
+// en tête est remise en queue au lieu d'être retirée (algorithme de
+// l'horloge) : c'est une approximation de l'ordre « moins récemment
+// utilisée » qui n'écrit qu'un booléen lors d'une recherche. Une table plus
+// grande que la capacité n'est pas gardée : l'octant est alors calculé à
+// chaque tracé, et le disque rangée par rangée sans table.
+//
+// Les deux tables d'un rayon r occupent environ 10 r octets : les 8 Mo par
+// défaut gardent tous les rayons jusqu'à 1300 pixels environ, ou quelques
+// milliers de rayons de quelques centaines de pixels. Au-delà, les tables
+// se chassent les unes les autres et chaque tracé refait le calcul en plus
+// de la recherche ; setCapacite doit alors être réglée sur les rayons
+// effectivement tracés (getEchecs permet de le vérifier).
+public final class CircleCache {
+	private static final long CAPACITE_DEFAUT = 8L << 20;
+
+	private static final class Entree {
+		final long cle;
+		final int[] table;
+		// vrai si la table a servi depuis son ajout ou son dernier passage en tête
+		volatile boolean utilisee = false;
+
+		Entree(long cle, int[] table) {
+			this.cle = cle;
+			this.table = table;
+		}
+	}
+
+	// clé : 2 * rayon, + 1 pour les demi-largeurs du disque
+	private static final ConcurrentHashMap<Long, Entree> TABLES = new ConcurrentHashMap<>();
+	// ordre de retrait, sous le verrou de la classe
+	private static final ArrayDeque<Entree> ORDRE = new ArrayDeque<>();
+	private static final LongAdder SUCCES = new LongAdder();
+	private static final LongAdder ECHECS = new LongAdder();
+	// modifiées sous le verrou, lues sans
+	private static volatile long capacite = CAPACITE_DEFAUT;
+	private static volatile long occupation = 0;
+
+	private CircleCache() {
+	}
+
+	// capacité en octets (8 Mo par défaut) ; les tables en trop sont retirées tout de suite
+	public static synchronized void setCapacite(long octets) {
+		capacite = Math.max(0, octets);
+		reduire();
+	}
+
+	public static long getCapacite() {
+		return capacite;
+	}
+
+	// mémoire occupée par les tables gardées, en octets
+	public static long getOccupation() {
+		return occupation;
+	}
+
+	public static int getNbTables() {
+		return TABLES.size();
+	}
+
+	public static long getSucces() {
+		return SUCCES.sum();
+	}
+
+	public static long getEchecs() {
+		return ECHECS.sum();
+	}
+
+	// retire toutes les tables et remet les compteurs à zéro
+	public static synchronized void vider() {
+		TABLES.clear();
+		ORDRE.clear();
+		occupation = 0;
+		SUCCES.reset();
+		ECHECS.reset();
+	}
+
+	// points du premier octant du cercle de rayon r > 0, voir Cercle.octant
+	static int[] octant(int r) {
+		long cle = 2L * r;
+		int[] table = chercher(cle);
+		if(table == null) {
+			table = Cercle.octant(r);
+			garder(cle, table);
+		}
+		return table;
+	}
+
+	// demi-largeur de chaque rangée dy = 0..r du disque de rayon r, ou null
+	// si la table ne tiendrait pas dans le cache
+	static int[] rangees(int r) {
+		if(r < 0)
+			return null;
+		long cle = 2L * r + 1;
+		int[] table = chercher(cle);
+		if(table != null)
+			return table;
+		if(taille(r + 1) > capacite)
+			return null;
+		table = new int[r + 1];
+		for(int dy = 0 ; dy <= r ; dy++)
+			table[dy] = Cercle.demiLargeur(r, dy);
+		garder(cle, table);
+		return table;
+	}
+
+	private static int[] chercher(long cle) {
+		Entree e = TABLES.get(cle);
+		if(e == null) {
+			ECHECS.increment();
+			return null;
+		}
+		SUCCES.increment();
+		// pas d'écriture si le drapeau est déjà levé : la ligne de cache reste partagée
+		if(!e.utilisee)
+			e.utilisee = true;
+		return e.table;
+	}
+
+	// la table est calculée hors du verrou : un autre thread a pu la garder entre-temps
+	private static synchronized void garder(long cle, int[] table) {
+		long octets = taille(table.length);
+		if(octets > capacite || TABLES.containsKey(cle))
+			return;
+		Entree e = new Entree(cle, table);
+		TABLES.put(cle, e);
+		ORDRE.addLast(e);
+		occupation += octets;
+		reduire();
+	}
+
+	// sous le verrou ; une table n'a qu'une seconde chance par appel, même si
+	// d'autres threads la réutilisent pendant le parcours
+	private static void reduire() {
+		int secondesChances = ORDRE.size();
+		while(occupation > capacite && !ORDRE.isEmpty()) {
+			Entree e = ORDRE.pollFirst();
+			if(e.utilisee && secondesChances-- > 0) {
+				e.utilisee = false;
+				ORDRE.addLast(e);
+				continue;
+			}
+			TABLES.remove(e.cle);
+			occupation -= taille(e.table.length);
+		}
+	}
+
+	// place occupée par un tableau de n entiers, en-tête compris
+	private static long taille(int n) {
+		return 16 + 4L * n;
+	}
+}
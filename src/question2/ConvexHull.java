@@ -0,0 +1,238 @@
+package question2;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Enveloppe convexe d'un ensemble de points donnés par deux tableaux de
+// coordonnées, par l'algorithme de la chaîne monotone (Andrew) : tri des
+// points par x puis y, puis construction des chaînes inférieure et
+// supérieure, en O(n log n). Le résultat est un nouveau Polygon, parcouru
+// dans le sens direct à partir du point le plus à gauche (le plus bas en
+// cas d'égalité) ; les points alignés sur un côté ne sont pas gardés.
+//
+// Avant le tri, les points strictement intérieurs à l'octogone formé des
+// points extrêmes selon x, y, x + y et x - y sont écartés en O(n) : pour
+// un nuage de points réparti, il en reste très peu à trier.
+//
+// En mode parallèle, les points sont découpés en tranches dont les
+// enveloppes sont calculées en parallèle puis fusionnées deux à deux.
+public class ConvexHull {
+	// en dessous de ce nombre de points, une tranche n'est plus découpée
+	private static final int SEUIL = 1 << 16;
+
+	// en dessous de cette taille, le tri se fait par insertion
+	private static final int TRI_INSERTION = 32;
+
+	private ConvexHull() {
+	}
+
+	public static Polygon calculer(double[] xs, double[] ys, int n) {
+		double[] octogone = octogone(xs, ys, 0, n);
+		Enveloppe e = tranche(xs, ys, 0, n, octogone);
+		return new Polygon(e.xs, e.ys, e.n);
+	}
+
+	public static Polygon calculer(ForkJoinPool pool, double[] xs, double[] ys, int n) {
+		double[] octogone = octogone(xs, ys, 0, n);
+		Enveloppe e = pool.invoke(new Tache(xs, ys, 0, n, octogone));
+		return new Polygon(e.xs, e.ys, e.n);
+	}
+
+	public static Polygon calculer(Polygon p) {
+		return calculer(p.sommets.xs(), p.sommets.ys(), p.sommets.size());
+	}
+
+	public static Polygon calculer(Point[] points) {
+		double[] xs = new double[points.length], ys = new double[points.length];
+		for(int i = 0 ; i < points.length ; i++) {
+			xs[i] = points[i].getX();
+			ys[i] = points[i].getY();
+		}
+		return calculer(xs, ys, points.length);
+	}
+
+	// les n premières cases de xs et ys sont les sommets
+	private static class Enveloppe {
+		final double[] xs;
+		final double[] ys;
+		final int n;
+
+		Enveloppe(double[] xs, double[] ys, int n) {
+			this.xs = xs;
+			this.ys = ys;
+			this.n = n;
+		}
+	}
+
+	// enveloppe des points [debut, fin) qui ne sont pas strictement dans l'octogone
+	private static Enveloppe tranche(double[] xs, double[] ys, int debut, int fin, double[] octogone) {
+		// octogone fermé : le premier sommet est répété à la fin
+		int m = octogone.length / 2 - 1;
+		// peu de points restent en général : les tableaux sont agrandis au besoin
+		double[] px = new double[Math.max(1, Math.min(fin - debut, 1024))], py = new double[px.length];
+		int n = 0;
+		for(int i = debut ; i < fin ; i++) {
+			double x = xs[i], y = ys[i];
+			boolean dedans = m >= 3;
+			for(int k = 0 ; k < m && dedans ; k++)
+				dedans = cote(octogone[2 * k], octogone[2 * k + 1], octogone[2 * k + 2], octogone[2 * k + 3], x, y) > 0;
+			if(!dedans) {
+				if(n == px.length) {
+					px = Arrays.copyOf(px, Math.min(fin - debut, 2 * n));
+					py = Arrays.copyOf(py, px.length);
+				}
+				px[n] = x;
+				py[n] = y;
+				n++;
+			}
+		}
+		return chaine(px, py, n);
+	}
+
+	// Points extrêmes selon x, y, x + y et x - y, réduits à leur enveloppe
+	// (au plus 8 sommets, à la suite : x0, y0, x1, y1..., puis x0, y0 à
+	// nouveau). Tous ces points sont sur l'enveloppe finale, l'intérieur de
+	// l'octogone aussi.
+	private static double[] octogone(double[] xs, double[] ys, int debut, int fin) {
+		if(fin <= debut)
+			return new double[2];
+		int[] extremes = new int[8];
+		Arrays.fill(extremes, debut);
+		double xMin = xs[debut], xMax = xMin, yMin = ys[debut], yMax = yMin;
+		double sMin = xMin + yMin, sMax = sMin, dMin = xMin - yMin, dMax = dMin;
+		for(int i = debut + 1 ; i < fin ; i++) {
+			double x = xs[i], y = ys[i], s = x + y, d = x - y;
+			if(x < xMin) { xMin = x; extremes[0] = i; }
+			if(x > xMax) { xMax = x; extremes[1] = i; }
+			if(y < yMin) { yMin = y; extremes[2] = i; }
+			if(y > yMax) { yMax = y; extremes[3] = i; }
+			if(s < sMin) { sMin = s; extremes[4] = i; }
+			if(s > sMax) { sMax = s; extremes[5] = i; }
+			if(d < dMin) { dMin = d; extremes[6] = i; }
+			if(d > dMax) { dMax = d; extremes[7] = i; }
+		}
+		double[] px = new double[8], py = new double[8];
+		for(int k = 0 ; k < 8 ; k++) {
+			px[k] = xs[extremes[k]];
+			py[k] = ys[extremes[k]];
+		}
+		Enveloppe e = chaine(px, py, 8);
+		double[] octogone = new double[2 * e.n + 2];
+		for(int k = 0 ; k <= e.n ; k++) {
+			octogone[2 * k] = e.xs[k % e.n];
+			octogone[2 * k + 1] = e.ys[k % e.n];
+		}
+		return octogone;
+	}
+
+	// > 0 si (x, y) est à gauche de la droite orientée de (ax, ay) vers (bx, by)
+	private static double cote(double ax, double ay, double bx, double by, double x, double y) {
+		return (bx - ax) * (y - ay) - (by - ay) * (x - ax);
+	}
+
+	// Chaîne monotone sur les n premiers points de xs et ys, qui sont triés
+	// sur place ; l'enveloppe est écrite dans de nouveaux tableaux.
+	private static Enveloppe chaine(double[] xs, double[] ys, int n) {
+		trier(xs, ys, 0, n, new double[n], new double[n]);
+		double[] hx = new double[2 * n + 1], hy = new double[2 * n + 1];
+		int h = 0;
+		for(int i = 0 ; i < n ; i++) {
+			// les doublons sont ignorés
+			if(i > 0 && xs[i] == xs[i - 1] && ys[i] == ys[i - 1])
+				continue;
+			while(h >= 2 && cote(hx[h - 2], hy[h - 2], hx[h - 1], hy[h - 1], xs[i], ys[i]) <= 0)
+				h--;
+			hx[h] = xs[i];
+			hy[h] = ys[i];
+			h++;
+		}
+		// chaîne supérieure, de droite à gauche, sans retoucher la chaîne inférieure
+		int bas = h + 1;
+		for(int i = n - 2 ; i >= 0 ; i--) {
+			if(xs[i] == xs[i + 1] && ys[i] == ys[i + 1])
+				continue;
+			while(h >= bas && cote(hx[h - 2], hy[h - 2], hx[h - 1], hy[h - 1], xs[i], ys[i]) <= 0)
+				h--;
+			hx[h] = xs[i];
+			hy[h] = ys[i];
+			h++;
+		}
+		// le premier point a été ajouté une seconde fois pour fermer l'enveloppe
+		if(h > 1)
+			h--;
+		return new Enveloppe(hx, hy, h);
+	}
+
+	// tri fusion de [debut, fin) par x puis y, tx et ty servant de tampons
+	private static void trier(double[] xs, double[] ys, int debut, int fin, double[] tx, double[] ty) {
+		if(fin - debut <= TRI_INSERTION) {
+			for(int i = debut + 1 ; i < fin ; i++) {
+				double x = xs[i], y = ys[i];
+				int j = i - 1;
+				while(j >= debut && (xs[j] > x || (xs[j] == x && ys[j] > y))) {
+					xs[j + 1] = xs[j];
+					ys[j + 1] = ys[j];
+					j--;
+				}
+				xs[j + 1] = x;
+				ys[j + 1] = y;
+			}
+			return;
+		}
+		int milieu = (debut + fin) >>> 1;
+		trier(xs, ys, debut, milieu, tx, ty);
+		trier(xs, ys, milieu, fin, tx, ty);
+		if(xs[milieu - 1] < xs[milieu] || (xs[milieu - 1] == xs[milieu] && ys[milieu - 1] <= ys[milieu]))
+			return;
+		System.arraycopy(xs, debut, tx, debut, fin - debut);
+		System.arraycopy(ys, debut, ty, debut, fin - debut);
+		int i = debut, j = milieu;
+		for(int k = debut ; k < fin ; k++) {
+			if(j >= fin || (i < milieu && (tx[i] < tx[j] || (tx[i] == tx[j] && ty[i] <= ty[j])))) {
+				xs[k] = tx[i];
+				ys[k] = ty[i];
+				i++;
+			}
+			else {
+				xs[k] = tx[j];
+				ys[k] = ty[j];
+				j++;
+			}
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class Tache extends RecursiveTask<Enveloppe> {
+		private final double[] xs;
+		private final double[] ys;
+		private final int debut;
+		private final int fin;
+		private final double[] octogone;
+
+		Tache(double[] xs, double[] ys, int debut, int fin, double[] octogone) {
+			this.xs = xs;
+			this.ys = ys;
+			this.debut = debut;
+			this.fin = fin;
+			this.octogone = octogone;
+		}
+
+		protected Enveloppe compute() {
+			if(this.fin - this.debut <= SEUIL)
+				return tranche(this.xs, this.ys, this.debut, this.fin, this.octogone);
+			int milieu = (this.debut + this.fin) >>> 1;
+			Tache gauche = new Tache(this.xs, this.ys, this.debut, milieu, this.octogone);
+			gauche.fork();
+			Enveloppe d = new Tache(this.xs, this.ys, milieu, this.fin, this.octogone).compute();
+			Enveloppe g = gauche.join();
+			// l'enveloppe de l'union est celle des sommets des deux enveloppes
+			double[] px = new double[g.n + d.n], py = new double[g.n + d.n];
+			System.arraycopy(g.xs, 0, px, 0, g.n);
+			System.arraycopy(g.ys, 0, py, 0, g.n);
+			System.arraycopy(d.xs, 0, px, g.n, d.n);
+			System.arraycopy(d.ys, 0, py, g.n, d.n);
+			return chaine(px, py, g.n + d.n);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package question2;
+
+// Découpage par un rectangle [xMin, xMax] x [yMin, yMax] : codes de
+// Cohen-Sutherland pour écarter d'un coup les segments entièrement d'un
+// côté, et découpage de polygones par demi-plans (Sutherland-Hodgman).
+// Le découpage d'un segment lui-même se fait par Liang-Barsky, dans
+// Segment.drawLine.
+final class Decoupage {
+	static final int GAUCHE = 1;
+	static final int DROITE = 2;
+	static final int BAS = 4;
+	static final int HAUT = 8;
+
+	private Decoupage() {
+	}
+
+	// côtés du rectangle à l'extérieur desquels est le point, 0 s'il est dedans
+	static int code(double x, double y, double xMin, double yMin, double xMax, double yMax) {
+		int c = 0;
+		if(x < xMin)
+			c |= GAUCHE;
+		else if(x > xMax)
+			c |= DROITE;
+		if(y < yMin)
+			c |= BAS;
+		else if(y > yMax)
+			c |= HAUT;
+		return c;
+	}
+
+	// Garde la partie du polygone (xs, ys, n) où x (ou y si surX est faux)
+	// est >= limite si superieur, <= limite sinon. Le résultat, d'au plus
+	// 2n sommets, est écrit dans (rx, ry) ; renvoie son nombre de sommets.
+	// Là où le polygone sort du demi-plan, il est remplacé par un morceau de
+	// la droite limite : pour tout point du demi-plan, le nombre
+	// d'enroulement est conservé, donc le remplissage aussi, quelle que
+	// soit la règle.
+	static int demiPlan(double[] xs, double[] ys, int n, boolean surX, double limite, boolean superieur,
+			double[] rx, double[] ry) {
+		if(n == 0)
+			return 0;
+		int m = 0;
+		double xPrec = xs[n - 1], yPrec = ys[n - 1];
+		boolean dedansPrec = dedans(surX ? xPrec : yPrec, limite, superieur);
+		for(int i = 0 ; i < n ; i++) {
+			double x = xs[i], y = ys[i];
+			boolean dedans = dedans(surX ? x : y, limite, superieur);
+			if(dedans != dedansPrec) {
+				// intersection calculée depuis l'extrémité intérieure, quel que soit le sens de l'arête
+				double xa = dedans ? x : xPrec, ya = dedans ? y : yPrec;
+				double xb = dedans ? xPrec : x, yb = dedans ? yPrec : y;
+				if(surX) {
+					rx[m] = limite;
+					ry[m] = ya + (limite - xa) / (xb - xa) * (yb - ya);
+				}
+				else {
+					rx[m] = xa + (limite - ya) / (yb - ya) * (xb - xa);
+					ry[m] = limite;
+				}
+				m++;
+			}
+			if(dedans) {
+				rx[m] = x;
+				ry[m] = y;
+				m++;
+			}
+			xPrec = x;
+			yPrec = y;
+			dedansPrec = dedans;
+		}
+		return m;
+	}
+
+	private static boolean dedans(double v, double limite, boolean superieur) {
+		return superieur ? v >= limite : v <= limite;
+	}
+}
@@ -0,0 +1,119 @@
+package question2;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Matrices de distances entre deux ensembles de points, rangées ligne par
+// ligne dans un tableau : la case i * nb + j est la distance du point i du
+// premier ensemble au point j du second, égale à distanceA.
+//
+// Le calcul est découpé en blocs de BLOC x BLOC paires : les coordonnées
+// d'un bloc tiennent dans le cache, et les blocs sont répartis sur un
+// ForkJoinPool. Une matrice de n points a n² cases : pour un nuage de
+// millions de points, on calcule les lignes par tranches dans un même
+// tableau, ou on passe par un KdTree si seuls les plus proches voisins
+// sont utiles.
+public class DistanceMatrix {
+	static final int BLOC = 256;
+
+	// en dessous de ce nombre de blocs, une tâche n'est plus découpée
+	private static final int SEUIL = 4;
+
+	private DistanceMatrix() {
+	}
+
+	// distances entre les points premiereLigne à premiereLigne + na - 1 de
+	// (ax, ay) et les nb premiers de (bx, by), écrites dans resultat qui doit
+	// avoir au moins na * nb cases : la ligne i du résultat est celle du point
+	// premiereLigne + i, ce qui permet de calculer une grande matrice par
+	// tranches de lignes dans le même tableau
+	public static void calculer(ForkJoinPool pool, double[] ax, double[] ay, int premiereLigne, int na,
+			double[] bx, double[] by, int nb, double[] resultat) {
+		if(premiereLigne < 0 || na < 0 || (long) premiereLigne + na > Math.min(ax.length, ay.length))
+			throw new IndexOutOfBoundsException("lignes " + premiereLigne + " à " + ((long) premiereLigne + na - 1)
+					+ " hors de l'ensemble de " + Math.min(ax.length, ay.length) + " points");
+		if(resultat.length < (long) na * nb)
+			throw new IllegalArgumentException("le tableau résultat doit avoir au moins " + (long) na * nb + " cases");
+		int blocsA = (na + BLOC - 1) / BLOC, blocsB = (nb + BLOC - 1) / BLOC;
+		if(blocsA > 0 && blocsB > 0)
+			pool.invoke(new Tache(ax, ay, premiereLigne, na, bx, by, nb, resultat, blocsB, 0, blocsA * blocsB));
+	}
+
+	public static void calculer(ForkJoinPool pool, double[] ax, double[] ay, int na,
+			double[] bx, double[] by, int nb, double[] resultat) {
+		calculer(pool, ax, ay, 0, na, bx, by, nb, resultat);
+	}
+
+	public static double[] calculer(ForkJoinPool pool, double[] ax, double[] ay, int na,
+			double[] bx, double[] by, int nb) {
+		double[] resultat = new double[Math.multiplyExact(na, nb)];
+		calculer(pool, ax, ay, na, bx, by, nb, resultat);
+		return resultat;
+	}
+
+	// distances entre tous les points de (xs, ys)
+	public static double[] calculer(ForkJoinPool pool, double[] xs, double[] ys, int n) {
+		return calculer(pool, xs, ys, n, xs, ys, n);
+	}
+
+	public static double[] calculer(ForkJoinPool pool, Point[] points) {
+		double[] xs = new double[points.length], ys = new double[points.length];
+		for(int i = 0 ; i < points.length ; i++) {
+			xs[i] = points[i].getX();
+			ys[i] = points[i].getY();
+		}
+		return calculer(pool, xs, ys, points.length);
+	}
+
+	// bloc (bi, bj) : lignes bi * BLOC..., colonnes bj * BLOC...
+	private static void bloc(double[] ax, double[] ay, int premiereLigne, int na, double[] bx, double[] by, int nb,
+			double[] resultat, int bi, int bj) {
+		int i0 = bi * BLOC, i1 = Math.min(i0 + BLOC, na);
+		int j0 = bj * BLOC, j1 = Math.min(j0 + BLOC, nb);
+		for(int i = i0 ; i < i1 ; i++) {
+			double x = ax[premiereLigne + i], y = ay[premiereLigne + i];
+			int ligne = i * nb;
+			for(int j = j0 ; j < j1 ; j++)
+				resultat[ligne + j] = Point.distance(x, y, bx[j], by[j]);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class Tache extends RecursiveAction {
+		private final double[] ax, ay, bx, by;
+		private final int premiereLigne, na, nb;
+		private final double[] resultat;
+		private final int blocsB;
+		// blocs numérotés ligne par ligne : bi = k / blocsB, bj = k % blocsB
+		private final int premier;
+		private final int fin;
+
+		Tache(double[] ax, double[] ay, int premiereLigne, int na, double[] bx, double[] by, int nb,
+				double[] resultat, int blocsB, int premier, int fin) {
+			this.ax = ax;
+			this.ay = ay;
+			this.premiereLigne = premiereLigne;
+			this.na = na;
+			this.bx = bx;
+			this.by = by;
+			this.nb = nb;
+			this.resultat = resultat;
+			this.blocsB = blocsB;
+			this.premier = premier;
+			this.fin = fin;
+		}
+
+		protected void compute() {
+			if(this.fin - this.premier <= SEUIL) {
+				for(int k = this.premier ; k < this.fin ; k++)
+					bloc(this.ax, this.ay, this.premiereLigne, this.na, this.bx, this.by, this.nb, this.resultat, k / this.blocsB, k % this.blocsB);
+				return;
+			}
+			int milieu = (this.premier + this.fin) >>> 1;
+			invokeAll(new Tache(this.ax, this.ay, this.premiereLigne, this.na, this.bx, this.by, this.nb,
+							this.resultat, this.blocsB, this.premier, milieu),
+					new Tache(this.ax, this.ay, this.premiereLigne, this.na, this.bx, this.by, this.nb,
+							this.resultat, this.blocsB, milieu, this.fin));
+		}
+	}
+}
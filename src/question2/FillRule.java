@@ -0,0 +1,9 @@
+package question2;
+
+// Règle qui décide si un point est à l'intérieur d'un polygone croisé ou concave
+public enum FillRule {
+	// à l'intérieur si une demi-droite issue du point coupe un nombre impair d'arêtes
+	EVEN_ODD,
+	// à l'intérieur si le nombre d'enroulements du contour autour du point est non nul
+	NON_ZERO
+}
@@ -1,10 +1,48 @@
 package question2;
 
 public abstract class Forme extends GraphicalElement {
+	// mesures en cache, NaN quand elles sont à recalculer ; les déplacements
+	// (translate, rotate) ne les changent pas
+	private double perimetre = Double.NaN;
+	private double aire = Double.NaN;
 	
-	public abstract double perimetre();
+	public double perimetre() {
+		if(Double.isNaN(this.perimetre))
+			this.perimetre = this.calculerPerimetre();
+		return this.perimetre;
+	}
+	
+	public double aire() {
+		if(Double.isNaN(this.aire))
+			this.aire = this.calculerAire();
+		return this.aire;
+	}
+	
+	protected abstract double calculerPerimetre();
+	
+	protected abstract double calculerAire();
 	
 	public double aireLateralePrismeDroit(double h) {
 		return perimetre() * h;
 	}
+	
+	// à appeler quand la forme elle-même change : les mesures seront recalculées
+	protected void invaliderMesures() {
+		this.perimetre = Double.NaN;
+		this.aire = Double.NaN;
+	}
+	
+	// à appeler après transform(t) : l'aire est multipliée par |det(t)|, le
+	// périmètre par le facteur d'échelle si t est une similitude, sinon il
+	// sera recalculé
+	protected void transformerMesures(Affine t) {
+		double det = Math.abs(t.determinant());
+		this.aire *= det;
+		boolean similitude = (t.getM00() == t.getM11() && t.getM01() == -t.getM10())
+				|| (t.getM00() == -t.getM11() && t.getM01() == t.getM10());
+		if(similitude)
+			this.perimetre *= Math.sqrt(det);
+		else
+			this.perimetre = Double.NaN;
+	}
 }
@@ -1,22 +1,84 @@
 package question2;
 
-import interaction.Painter;
+import interaction.Surface;
 
 public abstract class GraphicalElement {
+	// boîte englobante gardée en cache : null tant qu'elle n'a pas été calculée
+	// ou qu'une modification l'a rendue fausse
+	private BoundingBox bornes = null;
+	// incrémenté à chaque modification de la géométrie
+	private int modifications = 0;
+	// valeur de etatDependances() au moment où bornes a été calculée
+	private int etatBornes = 0;
+	// groupe qui contient l'élément, prévenu de chacune de ses modifications
+	Group parent = null;
 	
-	public void draw(Painter painter) {
+	public void draw(Surface painter) {
 		
 	}
 	
+	// dessine l'élément tel qu'il serait après la transformation t,
+	// sans modifier sa géométrie
+	public abstract void draw(Surface painter, Affine t);
+	
 	public abstract void translate(Vector vect);
 	public abstract void rotate(double angle);
+	public abstract void transform(Affine t);
+	
+	// calcul complet de la boîte englobante, appelé seulement quand le cache est périmé
+	protected abstract BoundingBox calculerBornes();
 	
+	public BoundingBox getBounds() {
+		int etat = this.etatDependances();
+		if(this.bornes == null || this.etatBornes != etat) {
+			this.bornes = this.calculerBornes();
+			this.etatBornes = etat;
+		}
+		return this.bornes;
+	}
+	
+	// groupe qui contient l'élément, null s'il n'est dans aucun
+	public Group getParent() {
+		return this.parent;
+	}
+	
+	int getModifications() {
+		return this.modifications;
+	}
+	
+	// à appeler après une modification qui ne se ramène pas à une translation
+	protected void invaliderBornes() {
+		this.modifications++;
+		this.bornes = null;
+		if(this.parent != null)
+			this.parent.enfantModifie();
+	}
+	
+	// à appeler après une translation : la boîte est décalée en O(1)
+	protected void decalerBornes(double dx, double dy) {
+		this.modifications++;
+		if(this.bornes != null) {
+			this.bornes = this.bornes.translate(dx, dy);
+			this.etatBornes = this.etatDependances();
+		}
+		if(this.parent != null)
+			this.parent.enfantModifie();
+	}
+
+	// vrai si la boîte est en cache (elle peut encore être périmée par une dépendance)
+	boolean bornesEnCache() {
+		return this.bornes != null;
+	}
+	
+	// Un élément qui garde des références sur d'autres éléments (les extrémités
+	// d'un segment, le centre d'un cercle) renvoie ici une valeur qui change
+	// dès que l'un d'eux est modifié directement : la boîte est alors recalculée.
+	protected int etatDependances() {
+		return 0;
+	}
+	
+	// une seule passe et un seul calcul de cos/sin, au lieu de translate, rotate, translate
 	public void rotate(Point centre, double angle) {
-		Vector v = centre.getCoordinates();
-		Vector vOppsoite = v.opposite();
-		
-		this.translate(vOppsoite);
-		this.rotate(angle);
-		this.translate(v);
+		this.transform(Affine.rotation(centre, angle));
 	}
 }
@@ -0,0 +1,168 @@
+package question2;
+
+import java.util.Arrays;
+
+import interaction.Surface;
+
+// Groupe d'éléments déplacés ensemble : les enfants sont exprimés dans le
+// repère du groupe, que la transformation locale place dans le repère du
+// parent. Déplacer un groupe ne modifie que cette transformation, en O(1)
+// quelle que soit la taille du sous-arbre ; les enfants ne sont transformés
+// qu'au moment du dessin.
+//
+// Un élément appartient à un seul groupe, qui est prévenu de ses
+// modifications pour tenir à jour sa boîte englobante. Comme pour Picture,
+// un point partagé et déplacé directement n'est pas vu : il faut passer par
+// les méthodes de l'élément qui l'utilise.
+public class Group extends GraphicalElement {
+	private GraphicalElement[] enfants;
+	private int nbEnfants = 0;
+	private Affine locale = Affine.identity();
+
+	// union des boîtes des enfants, dans le repère du groupe (null si périmée)
+	private BoundingBox contenu = null;
+
+	// transformation vers le repère de l'image, et ce dont elle a été déduite
+	private Affine monde = null;
+	private Affine mondeParent = null;
+	private Affine mondeLocale = null;
+
+	public Group(GraphicalElement[] enfants) {
+		this.enfants = new GraphicalElement[Math.max(4, enfants.length)];
+		for(int i = 0 ; i < enfants.length ; i++)
+			this.ajouter(enfants[i]);
+	}
+
+	public Group() {
+		this(new GraphicalElement[0]);
+	}
+
+	public void ajouter(GraphicalElement e) {
+		if(e.parent != null)
+			throw new IllegalArgumentException("l'élément appartient déjà à un groupe");
+		for(GraphicalElement g = this ; g != null ; g = g.parent)
+			if(g == e)
+				throw new IllegalArgumentException("un groupe ne peut pas se contenir lui-même");
+		if(this.nbEnfants == this.enfants.length)
+			this.enfants = Arrays.copyOf(this.enfants, 2 * this.nbEnfants);
+		this.enfants[this.nbEnfants++] = e;
+		e.parent = this;
+		this.enfantModifie();
+	}
+
+	public boolean retirer(GraphicalElement e) {
+		for(int i = 0 ; i < this.nbEnfants ; i++) {
+			if(this.enfants[i] != e)
+				continue;
+			// l'ordre des enfants est l'ordre de dessin : il est conservé
+			System.arraycopy(this.enfants, i + 1, this.enfants, i, this.nbEnfants - i - 1);
+			this.enfants[--this.nbEnfants] = null;
+			e.parent = null;
+			this.enfantModifie();
+			return true;
+		}
+		return false;
+	}
+
+	public int getNbEnfants() {
+		return this.nbEnfants;
+	}
+
+	public GraphicalElement getEnfant(int i) {
+		if(i < 0 || i >= this.nbEnfants)
+			return null;
+		return this.enfants[i];
+	}
+
+	public Affine getTransformLocale() {
+		return this.locale;
+	}
+
+	public void setTransformLocale(Affine t) {
+		this.locale = t;
+		this.invaliderBornes();
+	}
+
+	// Transformation du repère du groupe vers celui de la racine de la
+	// hiérarchie. Elle n'est recalculée que si la transformation locale ou
+	// celle d'un ancêtre a changé : les Affine étant immuables, il suffit de
+	// comparer les références.
+	public Affine getTransformMonde() {
+		Affine p = this.parent == null ? Affine.identity() : this.parent.getTransformMonde();
+		if(this.monde == null || p != this.mondeParent || this.locale != this.mondeLocale) {
+			this.monde = p.compose(this.locale);
+			this.mondeParent = p;
+			this.mondeLocale = this.locale;
+		}
+		return this.monde;
+	}
+
+	public void draw(Surface painter) {
+		this.draw(painter, Affine.identity());
+	}
+
+	// Les enfants dont la boîte n'atteint pas la partie dessinée de la surface
+	// (getClipBounds : une tuile de TileRenderer, la fenêtre si Picture
+	// découpe à la fenêtre) ne sont pas dessinés, avec la même marge d'un
+	// pixel que Picture.display, et donc tout le sous-arbre d'un groupe
+	// invisible est écarté d'un coup.
+	// La composition est refaite à chaque dessin : elle ne coûte qu'un produit
+	// de matrices et ne modifie pas le groupe, que plusieurs threads
+	// (TileRenderer) peuvent dessiner en même temps.
+	public void draw(Surface painter, Affine t) {
+		Affine m = t.compose(this.locale);
+		// java.awt.Rectangle, à ne pas confondre avec la forme du paquetage
+		java.awt.Rectangle zone = painter.getClipBounds();
+		double x0 = zone.x - 1, y0 = zone.y - 1, x1 = zone.x + zone.width, y1 = zone.y + zone.height;
+		for(int i = 0 ; i < this.nbEnfants ; i++) {
+			GraphicalElement e = this.enfants[i];
+			if(e.getBounds().imageRencontre(m, x0, y0, x1, y1))
+				e.draw(painter, m);
+		}
+	}
+
+	// boîte du contenu, transformée : elle englobe le groupe sans être forcément minimale
+	protected BoundingBox calculerBornes() {
+		return this.getContenu().transform(this.locale);
+	}
+
+	// union des boîtes des enfants, dans le repère du groupe
+	public BoundingBox getContenu() {
+		if(this.contenu == null) {
+			BoundingBox b = new BoundingBox(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+					Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
+			for(int i = 0 ; i < this.nbEnfants ; i++) {
+				BoundingBox e = this.enfants[i].getBounds();
+				if(!e.isEmpty())
+					b = b.union(e);
+			}
+			this.contenu = b;
+		}
+		return this.contenu;
+	}
+
+	// Un enfant a changé : le contenu et la boîte du groupe sont périmés, et
+	// ceux de ses ancêtres aussi. Si rien n'était en cache, les ancêtres ont
+	// déjà été prévenus : la remontée s'arrête.
+	void enfantModifie() {
+		if(this.contenu == null && !this.bornesEnCache())
+			return;
+		this.contenu = null;
+		this.invaliderBornes();
+	}
+
+	public void translate(Vector vect) {
+		this.locale = Affine.translation(vect).compose(this.locale);
+		this.decalerBornes(vect.getX(), vect.getY());
+	}
+
+	public void rotate(double angle) {
+		this.locale = Affine.rotation(angle).compose(this.locale);
+		this.invaliderBornes();
+	}
+
+	public void transform(Affine t) {
+		this.locale = t.compose(this.locale);
+		this.invaliderBornes();
+	}
+}
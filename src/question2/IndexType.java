@@ -0,0 +1,10 @@
+package question2;
+
+// Structure qui indexe les boîtes englobantes des éléments d'une image
+public enum IndexType {
+	// R-tree construit en bloc : requêtes rapides, mises à jour en O(log n)
+	RTREE,
+	// grille uniforme adressée par hachage : reconstruction en O(n) sans tri et
+	// réinsertion en O(1), pour des scènes dont tous les éléments bougent
+	GRID
+}
@@ -0,0 +1,297 @@
+package question2;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Arbre k-d sur un nuage de points, pour les requêtes des k plus proches
+// voisins. L'arbre est implicite : les points sont rangés dans trois
+// tableaux (x, y et numéro d'origine) de sorte que le nœud d'une plage
+// [debut, fin) soit son milieu, les points avant lui n'étant pas plus
+// loin sur l'axe de coupe, ceux après pas plus près. L'axe alterne entre x
+// et y à chaque niveau ; les plages de moins de FEUILLE points sont
+// parcourues entièrement.
+//
+// Les comparaisons se font sur les carrés des distances ; seules les
+// distances renvoyées sont passées à la racine, avec le même calcul que
+// distanceA. À distance égale, le point de plus petit numéro passe avant.
+public class KdTree {
+	private static final int FEUILLE = 8;
+
+	// au-delà de ce nombre de points, une plage est construite en parallèle
+	private static final int SEUIL_PARALLELE = 1 << 15;
+
+	// en dessous de ce nombre de requêtes, une tâche n'est plus découpée
+	private static final int SEUIL_REQUETES = 256;
+
+	private final double[] xs;
+	private final double[] ys;
+	private final int[] numeros;
+
+	public KdTree(double[] xs, double[] ys, int n) {
+		this(null, xs, ys, n);
+	}
+
+	// pool peut être null : la construction est alors séquentielle
+	public KdTree(ForkJoinPool pool, double[] xs, double[] ys, int n) {
+		this.xs = Arrays.copyOf(xs, n);
+		this.ys = Arrays.copyOf(ys, n);
+		this.numeros = new int[n];
+		for(int i = 0 ; i < n ; i++)
+			this.numeros[i] = i;
+		if(pool == null)
+			new Construction(0, n, 0, false).compute();
+		else
+			pool.invoke(new Construction(0, n, 0, true));
+	}
+
+	public KdTree(Point[] points) {
+		this(coordonnees(points, true), coordonnees(points, false), points.length);
+	}
+
+	private static double[] coordonnees(Point[] points, boolean x) {
+		double[] c = new double[points.length];
+		for(int i = 0 ; i < points.length ; i++)
+			c[i] = x ? points[i].getX() : points[i].getY();
+		return c;
+	}
+
+	public int taille() {
+		return this.numeros.length;
+	}
+
+	// numéros des k points les plus proches de (x, y), du plus proche au plus
+	// loin ; moins de k s'il n'y a pas assez de points
+	public int[] plusProches(double x, double y, int k) {
+		Tas tas = new Tas(Math.max(0, Math.min(k, this.numeros.length)));
+		this.chercher(0, this.numeros.length, 0, x, y, tas);
+		int[] voisins = new int[tas.taille];
+		tas.trier(voisins, null, 0);
+		return voisins;
+	}
+
+	// Requêtes en masse : les voisins de la requête i sont rangés dans
+	// voisins[i * k ...], du plus proche au plus loin, et leurs distances au
+	// même endroit de distances (qui peut être null). Les cases en trop,
+	// quand l'arbre a moins de k points, valent -1 et +infini.
+	public void plusProches(ForkJoinPool pool, double[] qx, double[] qy, int m, int k,
+			int[] voisins, double[] distances) {
+		if(m > 0 && k > 0)
+			pool.invoke(new Requetes(qx, qy, k, voisins, distances, 0, m));
+	}
+
+	private void chercher(int debut, int fin, int axe, double x, double y, Tas tas) {
+		if(tas.capacite == 0)
+			return;
+		if(fin - debut <= FEUILLE) {
+			for(int i = debut ; i < fin ; i++)
+				tas.proposer(this.carre(i, x, y), this.numeros[i]);
+			return;
+		}
+		int m = (debut + fin) >>> 1;
+		tas.proposer(this.carre(m, x, y), this.numeros[m]);
+		double ecart = axe == 0 ? x - this.xs[m] : y - this.ys[m];
+		// d'abord le côté de la requête ; l'autre n'est visité que s'il peut
+		// contenir un point aussi proche que le k-ième trouvé (égalité comprise)
+		if(ecart < 0) {
+			this.chercher(debut, m, 1 - axe, x, y, tas);
+			if(ecart * ecart <= tas.pire())
+				this.chercher(m + 1, fin, 1 - axe, x, y, tas);
+		}
+		else {
+			this.chercher(m + 1, fin, 1 - axe, x, y, tas);
+			if(ecart * ecart <= tas.pire())
+				this.chercher(debut, m, 1 - axe, x, y, tas);
+		}
+	}
+
+	private double carre(int i, double x, double y) {
+		double dx = x - this.xs[i];
+		double dy = y - this.ys[i];
+		return dx*dx + dy*dy;
+	}
+
+	// Place en k le point de rang k sur l'axe parmi [debut, fin), ceux
+	// d'avant n'étant pas plus grands, ceux d'après pas plus petits.
+	private void selectionner(int debut, int fin, int k, int axe) {
+		double[] c = axe == 0 ? this.xs : this.ys;
+		while(fin - debut > 1) {
+			double a = c[debut], b = c[(debut + fin) >>> 1], d = c[fin - 1];
+			double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), d));
+			int i = debut, j = fin - 1;
+			while(i <= j) {
+				while(c[i] < pivot)
+					i++;
+				while(c[j] > pivot)
+					j--;
+				if(i <= j)
+					this.echanger(i++, j--);
+			}
+			// [debut, j] <= pivot, [i, fin) >= pivot, et entre les deux le pivot
+			if(k <= j)
+				fin = j + 1;
+			else if(k >= i)
+				debut = i;
+			else
+				return;
+		}
+	}
+
+	private void echanger(int i, int j) {
+		double x = this.xs[i], y = this.ys[i];
+		int n = this.numeros[i];
+		this.xs[i] = this.xs[j];
+		this.ys[i] = this.ys[j];
+		this.numeros[i] = this.numeros[j];
+		this.xs[j] = x;
+		this.ys[j] = y;
+		this.numeros[j] = n;
+	}
+
+	// construit l'arbre de la plage [debut, fin), les deux moitiés en parallèle si elle est grande
+	@SuppressWarnings("serial")
+	private class Construction extends RecursiveAction {
+		private final int debut;
+		private final int fin;
+		private final int axe;
+		private final boolean parallele;
+
+		Construction(int debut, int fin, int axe, boolean parallele) {
+			this.debut = debut;
+			this.fin = fin;
+			this.axe = axe;
+			this.parallele = parallele;
+		}
+
+		protected void compute() {
+			construire(this.debut, this.fin, this.axe);
+		}
+
+		private void construire(int debut, int fin, int axe) {
+			if(fin - debut <= FEUILLE)
+				return;
+			int m = (debut + fin) >>> 1;
+			selectionner(debut, fin, m, axe);
+			if(this.parallele && fin - debut > SEUIL_PARALLELE)
+				invokeAll(new Construction(debut, m, 1 - axe, true), new Construction(m + 1, fin, 1 - axe, true));
+			else {
+				this.construire(debut, m, 1 - axe);
+				this.construire(m + 1, fin, 1 - axe);
+			}
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private class Requetes extends RecursiveAction {
+		private final double[] qx, qy;
+		private final int k;
+		private final int[] voisins;
+		private final double[] distances;
+		private final int premiere;
+		private final int fin;
+
+		Requetes(double[] qx, double[] qy, int k, int[] voisins, double[] distances, int premiere, int fin) {
+			this.qx = qx;
+			this.qy = qy;
+			this.k = k;
+			this.voisins = voisins;
+			this.distances = distances;
+			this.premiere = premiere;
+			this.fin = fin;
+		}
+
+		protected void compute() {
+			if(this.fin - this.premiere <= SEUIL_REQUETES) {
+				Tas tas = new Tas(Math.min(this.k, numeros.length));
+				for(int q = this.premiere ; q < this.fin ; q++) {
+					tas.taille = 0;
+					chercher(0, numeros.length, 0, this.qx[q], this.qy[q], tas);
+					int n = tas.taille;
+					tas.trier(this.voisins, this.distances, q * this.k);
+					for(int j = n ; j < this.k ; j++) {
+						this.voisins[q * this.k + j] = -1;
+						if(this.distances != null)
+							this.distances[q * this.k + j] = Double.POSITIVE_INFINITY;
+					}
+				}
+				return;
+			}
+			int milieu = (this.premiere + this.fin) >>> 1;
+			invokeAll(new Requetes(this.qx, this.qy, this.k, this.voisins, this.distances, this.premiere, milieu),
+					new Requetes(this.qx, this.qy, this.k, this.voisins, this.distances, milieu, this.fin));
+		}
+	}
+
+	// Les k meilleurs candidats trouvés, en tas : le pire est à la racine.
+	// Un candidat est pire qu'un autre s'il est plus loin, ou à la même
+	// distance avec un plus grand numéro.
+	private static class Tas {
+		final int capacite;
+		final double[] carres;
+		final int[] numeros;
+		int taille = 0;
+
+		Tas(int capacite) {
+			this.capacite = capacite;
+			this.carres = new double[capacite];
+			this.numeros = new int[capacite];
+		}
+
+		// carré de la distance au-delà duquel un point ne peut plus entrer
+		double pire() {
+			return this.taille < this.capacite ? Double.POSITIVE_INFINITY : this.carres[0];
+		}
+
+		private static boolean pire(double d1, int n1, double d2, int n2) {
+			return d1 > d2 || (d1 == d2 && n1 > n2);
+		}
+
+		void proposer(double carre, int numero) {
+			if(this.taille < this.capacite) {
+				// insertion en bas du tas, puis remontée
+				int i = this.taille++;
+				while(i > 0) {
+					int p = (i - 1) >>> 1;
+					if(!pire(carre, numero, this.carres[p], this.numeros[p]))
+						break;
+					this.carres[i] = this.carres[p];
+					this.numeros[i] = this.numeros[p];
+					i = p;
+				}
+				this.carres[i] = carre;
+				this.numeros[i] = numero;
+			}
+			else if(pire(this.carres[0], this.numeros[0], carre, numero))
+				this.descendre(0, carre, numero, this.taille);
+		}
+
+		// place (carre, numero) à partir de i en descendant, dans un tas de n cases
+		private void descendre(int i, double carre, int numero, int n) {
+			while(true) {
+				int f = 2 * i + 1;
+				if(f >= n)
+					break;
+				if(f + 1 < n && pire(this.carres[f + 1], this.numeros[f + 1], this.carres[f], this.numeros[f]))
+					f++;
+				if(!pire(this.carres[f], this.numeros[f], carre, numero))
+					break;
+				this.carres[i] = this.carres[f];
+				this.numeros[i] = this.numeros[f];
+				i = f;
+			}
+			this.carres[i] = carre;
+			this.numeros[i] = numero;
+		}
+
+		// vide le tas dans voisins[debut ...], du plus proche au plus loin, avec les distances si demandées
+		void trier(int[] voisins, double[] distances, int debut) {
+			for(int n = this.taille ; n > 0 ; n--) {
+				voisins[debut + n - 1] = this.numeros[0];
+				if(distances != null)
+					distances[debut + n - 1] = Math.sqrt(this.carres[0]);
+				this.descendre(0, this.carres[n - 1], this.numeros[n - 1], n - 1);
+			}
+			this.taille = 0;
+		}
+	}
+}
@@ -1,45 +1,253 @@
 package question2;
 
+import java.util.concurrent.ForkJoinPool;
+
 import interaction.Painter;
+import interaction.Surface;
 public class Picture {
 
 	private GraphicalElement[] elements;
-	private Painter painter;
-	
+	private Surface painter;
+
+	// Les déplacements de l'image ne modifient pas la géométrie des éléments :
+	// on cumule un déplacement rigide x -> R(angle).x + (tx, ty), qui n'est
+	// appliqué qu'au moment du dessin. L'angle est conservé tel quel (et non
+	// sous forme de matrice), donc la rotation reste exacte après des millions d'images.
+	private double angle = 0;
+	private double tx = 0;
+	private double ty = 0;
+
+	// si vrai, seuls les éléments visibles dans la fenêtre défilante (au zoom
+	// courant) sont dessinés ; sinon, tous ceux qui touchent la surface
+	private boolean decoupageFenetre = false;
+	// nombre d'éléments écartés sans être dessinés lors de la dernière image
+	private int nbEcartes = 0;
+
+	// Index des boîtes englobantes des éléments, dans leur propre repère : les
+	// déplacements de l'image ne le modifient pas. Construit à la première
+	// requête, tenu à jour élément par élément, reconstruit en bloc quand tous
+	// les éléments changent (null en attendant).
+	private final IndexType typeIndex;
+	private SpatialIndex index = null;
+
 	public Picture(int height, int width, GraphicalElement[] elements) {
-		this.painter = new Painter(width, height);
+		this(new Painter(width, height), elements);
+	}
+
+	// dessin sur une surface quelconque, par exemple un OffscreenPainter sans affichage
+	public Picture(Surface surface, GraphicalElement[] elements) {
+		this(surface, elements, IndexType.RTREE);
+	}
+
+	// GRID convient mieux aux scènes dont tous les éléments bougent à chaque image
+	public Picture(Surface surface, GraphicalElement[] elements, IndexType typeIndex) {
+		this.typeIndex = typeIndex;
+		this.painter = surface;
 		this.elements = new GraphicalElement[elements.length];
-		
+
 		for(int i = 0 ; i < elements.length ; i++)
 			this.elements[i] = elements[i];
 	}
-	
+
+	// l'image est dessinée dans le tampon arrière de la surface puis affichée d'un coup
+	// les éléments dont la boîte englobante ne rencontre pas la zone visible
+	// ne sont pas dessinés
 	public void display() {
-		for(int i = 0 ; i < elements.length ; i++)
-			this.elements[i].draw(painter);
+		painter.beginFrame();
+		Affine t = this.getTransform();
+		double[] zone = this.zoneVisible();
+		Surface cible = this.cible();
+		int ecartes = 0;
+		for(int i = 0 ; i < elements.length ; i++) {
+			if(this.elements[i].getBounds().imageRencontre(t, zone[0], zone[1], zone[2], zone[3]))
+				this.elements[i].draw(cible, t);
+			else
+				ecartes++;
+		}
+		this.nbEcartes = ecartes;
+		painter.endFrame();
 	}
-	
-	public void translateElements(Vector vect) {	
-		for(int i = 0 ; i < elements.length ; i++) 
-			this.elements[i].translate(vect);	
 
-		painter.clear();
+	// même résultat que display(), pixel pour pixel, mais la surface est
+	// découpée en tuiles dessinées en parallèle sur le pool donné
+	public void display(ForkJoinPool pool) {
+		painter.beginFrame();
+		this.nbEcartes = TileRenderer.render(pool, this.cible(), this.elements, this.getTransform(), this.zoneVisible());
+		painter.endFrame();
 	}
-	
+
+	// Zone à dessiner {xMin, yMin, xMax, yMax}, élargie d'un pixel de chaque côté :
+	// les algorithmes de tracé arrondissent, un élément peut allumer un pixel
+	// voisin de sa boîte englobante.
+	private double[] zoneVisible() {
+		if(!this.decoupageFenetre)
+			return new double[] {-1, -1, painter.getWidth(), painter.getHeight()};
+		java.awt.Rectangle r = painter.getVisibleBounds();
+		return new double[] {r.x - 1, r.y - 1, r.x + r.width, r.y + r.height};
+	}
+
+	// Surface où dessiner : avec le découpage à la fenêtre, une vue limitée à
+	// la partie affichée, pour que les groupes et les algorithmes de tracé
+	// écartent eux aussi ce qui en sort (getClipBounds). À créer après
+	// beginFrame : une vue ne sert que jusqu'à la fin de l'image.
+	private Surface cible() {
+		if(!this.decoupageFenetre)
+			return painter;
+		java.awt.Rectangle r = painter.getVisibleBounds();
+		return painter.clip(r.x, r.y, r.x + r.width - 1, r.y + r.height - 1);
+	}
+
+	// Avec le découpage à la fenêtre, ce qui est hors de la partie affichée n'est
+	// pas dessiné : en faisant défiler une image fixe, on ne le voit qu'à l'image
+	// suivante. Utile pour les animations de grandes scènes.
+	public void setDecoupageFenetre(boolean decoupage) {
+		this.decoupageFenetre = decoupage;
+	}
+
+	public boolean getDecoupageFenetre() {
+		return this.decoupageFenetre;
+	}
+
+	// nombre d'éléments écartés lors du dernier appel à display
+	public int getNbEcartes() {
+		return this.nbEcartes;
+	}
+
+	public void translateElements(Vector vect) {
+		this.tx += vect.getX();
+		this.ty += vect.getY();
+	}
+
 	public void rotateElements(double alpha) {
-		for(int i = 0 ; i < elements.length ; i++) 
-			this.elements[i].rotate(alpha);	
-		painter.clear();
+		this.rotateElements(0, 0, alpha);
 	}
-	
+
 	public void rotateElements(Point centre, double angle) {
-		for(int i = 0 ; i < elements.length ; i++) 
-			this.elements[i].rotate(centre, angle);	
-		painter.clear();
+		this.rotateElements(centre.getX(), centre.getY(), angle);
 	}
-	
-	
-	public Painter getPainter() {
+
+	// R(a).(R(angle).x + t - c) + c = R(angle + a).x + R(a).(t - c) + c
+	private void rotateElements(double cx, double cy, double a) {
+		double cos = Math.cos(a);
+		double sin = Math.sin(a);
+		double x = this.tx - cx;
+		double y = this.ty - cy;
+		this.tx = x*cos - y*sin + cx;
+		this.ty = x*sin + y*cos + cy;
+		this.angle = Math.IEEEremainder(this.angle + a, 2 * Math.PI);
+	}
+
+	// une transformation quelconque n'est pas un déplacement rigide :
+	// elle est appliquée directement à la géométrie des éléments
+	public void transformElements(Affine t) {
+		this.applyTransform();
+		for(int i = 0 ; i < elements.length ; i++)
+			this.elements[i].transform(t);
+		this.index = null;
+	}
+
+	// reporte le déplacement cumulé dans la géométrie des éléments
+	public void applyTransform() {
+		if(this.angle == 0 && this.tx == 0 && this.ty == 0)
+			return;
+
+		Affine t = this.getTransform();
+		for(int i = 0 ; i < elements.length ; i++)
+			this.elements[i].transform(t);
+		this.angle = 0;
+		this.tx = 0;
+		this.ty = 0;
+		this.index = null;
+	}
+
+	// Déplacements d'un seul élément, exprimés dans le repère de l'image
+	// (celui du dessin) : ils sont ramenés dans le repère de l'élément, et
+	// l'index n'est mis à jour que pour cet élément.
+	public void translateElement(int i, Vector vect) {
+		double cos = Math.cos(this.angle);
+		double sin = Math.sin(this.angle);
+		// rotation inverse du vecteur
+		this.elements[i].translate(new Vector(new double[] {
+				vect.getX()*cos + vect.getY()*sin, -vect.getX()*sin + vect.getY()*cos}));
+		this.elementChanged(i);
+	}
+
+	public void rotateElement(int i, Point centre, double angle) {
+		Affine inverse = this.getTransform().inverse();
+		double x = centre.getX(), y = centre.getY();
+		this.elements[i].rotate(new Point(inverse.transformX(x, y), inverse.transformY(x, y)), angle);
+		this.elementChanged(i);
+	}
+
+	public void transformElement(int i, Affine t) {
+		Affine m = this.getTransform();
+		this.elements[i].transform(m.inverse().compose(t.compose(m)));
+		this.elementChanged(i);
+	}
+
+	// à appeler après avoir modifié directement la géométrie de l'élément i
+	public void elementChanged(int i) {
+		if(this.index != null)
+			this.index.deplacer(i, this.elements[i].getBounds());
+	}
+
+	// Requêtes dans le repère de l'image, sur les boîtes englobantes des
+	// éléments. Les éléments sont renvoyés dans l'ordre de l'image.
+
+	// éléments dont la boîte englobante, une fois déplacée avec l'image, rencontre la zone
+	public GraphicalElement[] getElementsIn(BoundingBox zone) {
+		Affine t = this.getTransform();
+		BoundingBox locale = zone.transform(t.inverse());
+		int[] ids = this.index().chercher(locale.getMinX(), locale.getMinY(), locale.getMaxX(), locale.getMaxY());
+		// la zone ramenée dans le repère des éléments est élargie si l'image a tourné
+		int nb = 0;
+		for(int k = 0 ; k < ids.length ; k++)
+			if(this.elements[ids[k]].getBounds().imageRencontre(t, zone.getMinX(), zone.getMinY(), zone.getMaxX(), zone.getMaxY()))
+				ids[nb++] = ids[k];
+		return this.elementsAux(ids, nb);
+	}
+
+	// éléments dont la boîte englobante contient le point
+	public GraphicalElement[] getElementsAt(double x, double y) {
+		Affine inverse = this.getTransform().inverse();
+		double lx = inverse.transformX(x, y), ly = inverse.transformY(x, y);
+		int[] ids = this.index().chercher(lx, ly, lx, ly);
+		return this.elementsAux(ids, ids.length);
+	}
+
+	// élément dont la boîte englobante est la plus proche du point
+	// (un déplacement rigide conserve les distances), null s'il n'y en a pas
+	public GraphicalElement getNearestElement(double x, double y) {
+		Affine inverse = this.getTransform().inverse();
+		int i = this.index().plusProche(inverse.transformX(x, y), inverse.transformY(x, y));
+		return i < 0 ? null : this.elements[i];
+	}
+
+	private GraphicalElement[] elementsAux(int[] ids, int nb) {
+		GraphicalElement[] resultat = new GraphicalElement[nb];
+		for(int k = 0 ; k < nb ; k++)
+			resultat[k] = this.elements[ids[k]];
+		return resultat;
+	}
+
+	private SpatialIndex index() {
+		if(this.index == null) {
+			BoundingBox[] boites = new BoundingBox[this.elements.length];
+			for(int i = 0 ; i < boites.length ; i++)
+				boites[i] = this.elements[i].getBounds();
+			this.index = SpatialIndex.creer(this.typeIndex);
+			this.index.construire(boites);
+		}
+		return this.index;
+	}
+
+	public Affine getTransform() {
+		double cos = Math.cos(this.angle);
+		double sin = Math.sin(this.angle);
+		return new Affine(cos, -sin, this.tx, sin, cos, this.ty);
+	}
+
+	public Surface getPainter() {
 		return this.painter;
 	}
 }
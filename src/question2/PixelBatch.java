@@ -0,0 +1,56 @@
+package question2;
+
+import interaction.Surface;
+
+// Accumule des pixels isolés pour les envoyer en un seul appel à Surface.setPixels.
+// Une instance par thread, réutilisée d'un dessin à l'autre.
+class PixelBatch {
+	private static final ThreadLocal<PixelBatch> INSTANCE = ThreadLocal.withInitial(PixelBatch::new);
+
+	private int[] xs = new int[256];
+	private int[] ys = new int[256];
+	private int count = 0;
+
+	static PixelBatch get() {
+		return INSTANCE.get();
+	}
+
+	void add(int x, int y) {
+		if(this.count == this.xs.length) {
+			this.xs = java.util.Arrays.copyOf(this.xs, 2 * this.count);
+			this.ys = java.util.Arrays.copyOf(this.ys, 2 * this.count);
+		}
+		this.xs[this.count] = x;
+		this.ys[this.count] = y;
+		this.count++;
+	}
+
+	// accès direct pour les boucles qui connaissent à l'avance le nombre de pixels :
+	// reserve(n), écriture dans xs() et ys(), puis flush(painter, n)
+	void reserve(int n) {
+		if(this.xs.length < n) {
+			this.xs = new int[Math.max(n, 2 * this.xs.length)];
+			this.ys = new int[this.xs.length];
+		}
+		this.count = 0;
+	}
+
+	int[] xs() {
+		return this.xs;
+	}
+
+	int[] ys() {
+		return this.ys;
+	}
+
+	void flush(Surface painter, int count) {
+		this.count = count;
+		this.flush(painter);
+	}
+
+	void flush(Surface painter) {
+		if(this.count > 0)
+			painter.setPixels(this.xs, this.ys, this.count, true);
+		this.count = 0;
+	}
+}
@@ -1,6 +1,6 @@
 package question2;
 
-import interaction.Painter;
+import interaction.Surface;
 
 public class Point extends GraphicalElement {
 	private double x;
@@ -12,7 +12,15 @@ public class Point extends GraphicalElement {
 	}
 	
 	public double distanceA(Point p) {
-		return Math.sqrt(Math.pow(this.x - p.getX(), 2)  +  Math.pow(this.y - p.getY(), 2));
+		return distance(this.getX(), this.getY(), p.getX(), p.getY());
+	}
+	
+	// distance utilisée partout dans le paquetage (DistanceMatrix, KdTree,
+	// Quadrilatere), pour que les résultats soient identiques à distanceA
+	static double distance(double x1, double y1, double x2, double y2) {
+		double dx = x1 - x2;
+		double dy = y1 - y2;
+		return Math.sqrt(dx*dx + dy*dy);
 	}
 	
 	public double getX() {
@@ -23,24 +31,51 @@ public class Point extends GraphicalElement {
 		return this.y;
 	}
 	
-	public void draw(Painter painter) {
-		painter.setPixel((int) this.x, (int) this.y , true);
+	// Toutes les méthodes passent par getX, getY et setCoordonnees : une vue
+	// sur des coordonnées stockées ailleurs (Polygon.getSommet) n'a qu'à
+	// redéfinir ces trois méthodes.
+	protected void setCoordonnees(double x, double y) {
+		this.x = x;
+		this.y = y;
+	}
+	
+	public void draw(Surface painter) {
+		painter.setPixel((int) this.getX(), (int) this.getY(), true);
+	}
+	
+	public void draw(Surface painter, Affine t) {
+		double x = this.getX(), y = this.getY();
+		painter.setPixel((int) t.transformX(x, y), (int) t.transformY(x, y), true);
+	}
+	
+	protected BoundingBox calculerBornes() {
+		double x = this.getX(), y = this.getY();
+		return new BoundingBox(x, y, x, y);
 	}
 	
 	public void translate(Vector vect) {
-		this.x += vect.getX();
-		this.y += vect.getY();	
+		this.setCoordonnees(this.getX() + vect.getX(), this.getY() + vect.getY());
+		this.decalerBornes(vect.getX(), vect.getY());
 	}
 	
 	public void rotate(double angle) {
-		double x1 = this.x;
-		double y1 = this.y;
-		this.x = x1*Math.cos(angle) - y1*Math.sin(angle);
-		this.y = x1*Math.sin(angle) + y1*Math.cos(angle);
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		double x1 = this.getX();
+		double y1 = this.getY();
+		this.setCoordonnees(x1*cos - y1*sin, x1*sin + y1*cos);
+		this.invaliderBornes();
+	}
+	
+	public void transform(Affine t) {
+		double x1 = this.getX();
+		double y1 = this.getY();
+		this.setCoordonnees(t.transformX(x1, y1), t.transformY(x1, y1));
+		this.invaliderBornes();
 	}
 	
 	public Vector getCoordinates() {
-		return new Vector(new double[] {this.x, this.y});
+		return new Vector(new double[] {this.getX(), this.getY()});
 	}
 	
 }
@@ -1,99 +1,191 @@
 package question2;
 
-import interaction.Painter;
+import interaction.Surface;
 
 public class Polygon extends Forme {
-	protected Point[] sommets;
-	private Segment[] segments;
-	
+	protected VertexBuffer sommets;
+	// null : seul le contour est dessiné
+	private FillRule remplissage = null;
+
 	public Polygon(Point[] sommets) {
-		int size = sommets.length;
-		this.sommets = new Point[size];
-		for(int i = 0 ; i < size ; i++) {
-			this.sommets[i] = sommets[i]; 
-		}
-		
-		this.segments = new Segment[size];
-		for(int i = 0; i < size ; i++) {
-			if(i != size - 1)
-				segments[i] = new Segment(this.sommets[i], this.sommets[i+1]);
-			else
-				segments[i] = new Segment(this.sommets[i], this.sommets[0]);
-		}
+		this.sommets = new VertexBuffer(sommets);
 	}
-	
+
+	// sommets donnés par les n premières coordonnées des tableaux, qui sont copiées
+	public Polygon(double[] xs, double[] ys, int n) {
+		this.sommets = new VertexBuffer(xs, ys, n);
+	}
+
 	protected Polygon(int nbrSommets) {
-		this.sommets = new Point[nbrSommets];
+		this.sommets = new VertexBuffer(nbrSommets);
 	}
-	
+
+	public FillRule getRemplissage() {
+		return this.remplissage;
+	}
+
+	public void setRemplissage(FillRule regle) {
+		this.remplissage = regle;
+	}
+
+	public int getNbSommets() {
+		return this.sommets.size();
+	}
+
+	// le Point renvoyé est une vue sur le tableau de sommets :
+	// le déplacer déplace le sommet du polygone
 	public Point getSommet(int i) {
-		if(this.sommets[i] != null)
-			return sommets[i];
-		return null;
+		if(i < 0 || i >= this.sommets.size())
+			return null;
+		return new Sommet(this, i);
 	}
-	
-	public double perimetre() {
-		int size = this.sommets.length;
+
+	protected double calculerPerimetre() {
+		return perimetre(this.sommets.xs(), this.sommets.ys(), 0, this.sommets.size());
+	}
+
+	protected double calculerAire() {
+		return aire(this.sommets.xs(), this.sommets.ys(), 0, this.sommets.size());
+	}
+
+	// périmètre du polygone formé des sommets debut à fin - 1 des tableaux,
+	// partagé avec ShapeAnalytics pour que les résultats soient identiques
+	static double perimetre(double[] xs, double[] ys, int debut, int fin) {
+		if(fin <= debut)
+			return 0;
 		double perimetre = 0;
-		int i = 0;
-		for(i = 0 ; i < size ; i++) {
-			
-			if(i+1 == size)
-				break;
-			else
-				perimetre += sommets[i].distanceA(sommets[i+1]);
+
+		for(int i = debut ; i < fin - 1 ; i++) {
+			double dx = xs[i] - xs[i + 1];
+			double dy = ys[i] - ys[i + 1];
+			perimetre += Math.sqrt(dx*dx + dy*dy);
 		}
-		perimetre += this.sommets[i].distanceA(this.sommets[0]);
-		
-		return perimetre;
+		// côté qui ferme le polygone, en dernier comme dans le parcours des sommets
+		double dx = xs[fin - 1] - xs[debut];
+		double dy = ys[fin - 1] - ys[debut];
+		return perimetre + Math.sqrt(dx*dx + dy*dy);
+	}
+
+	// formule du lacet, pour un polygone simple
+	static double aire(double[] xs, double[] ys, int debut, int fin) {
+		if(fin <= debut)
+			return 0;
+		double somme = 0;
+
+		for(int i = debut ; i < fin - 1 ; i++)
+			somme += xs[i] * ys[i + 1] - xs[i + 1] * ys[i];
+		somme += xs[fin - 1] * ys[debut] - xs[debut] * ys[fin - 1];
+
+		return Math.abs(somme) / 2;
 	}
-	
+
 	public String toString() {
 		String s = "[";
-		int size = sommets.length;
-		
+		int size = sommets.size();
+
 		for(int i = 0; i < size ; i++) {
-			s += "(" + this.sommets[i].getX() + "," + this.sommets[i].getY() + ")";
+			s += "(" + this.sommets.getX(i) + "," + this.sommets.getY(i) + ")";
 			if(i == size - 1)
 				break;
 			s += ",";
-		}		
+		}
 		s += "]";
 		return s;
 	}
-	
-	public void draw(Painter painter) {
-		for(int i = 0; i < this.segments.length ; i++) {
-			this.segments[i].draw(painter);
+
+	public void draw(Surface painter) {
+		double[] xs = this.sommets.xs();
+		double[] ys = this.sommets.ys();
+		int size = xs.length;
+
+		if(this.remplissage != null)
+			ScanlineFill.fill(painter, xs, ys, size, Affine.identity(), this.remplissage);
+
+		for(int i = 0; i < size ; i++) {
+			int j = (i == size - 1) ? 0 : i + 1;
+			Segment.drawLine(painter, xs[i], ys[i], xs[j], ys[j]);
+		}
+	}
+
+	// les sommets sont transformés à la volée, le tableau de sommets n'est pas modifié
+	public void draw(Surface painter, Affine t) {
+		double[] xs = this.sommets.xs();
+		double[] ys = this.sommets.ys();
+		int size = xs.length;
+		if(size == 0)
+			return;
+
+		if(this.remplissage != null)
+			ScanlineFill.fill(painter, xs, ys, size, t, this.remplissage);
+
+		double xPrec = t.transformX(xs[size - 1], ys[size - 1]);
+		double yPrec = t.transformY(xs[size - 1], ys[size - 1]);
+		for(int i = 0; i < size ; i++) {
+			double x = t.transformX(xs[i], ys[i]);
+			double y = t.transformY(xs[i], ys[i]);
+			Segment.drawLine(painter, xPrec, yPrec, x, y);
+			xPrec = x;
+			yPrec = y;
 		}
 	}
-	
+
+	protected BoundingBox calculerBornes() {
+		return BoundingBox.of(this.sommets.xs(), this.sommets.ys(), this.sommets.size());
+	}
+
 	public void translate(Vector vect) {
-		for(int i = 0; i < this.sommets.length ; i++) {
-			this.sommets[i].translate(vect);
-		}
-		
-		// on reconstruit les segments pour un eventuel appel de draw()
-		for(int i = 0; i < this.sommets.length ; i++) {
-			if(i != this.sommets.length - 1)
-				segments[i] = new Segment(this.sommets[i], this.sommets[i+1]);
-			else
-				segments[i] = new Segment(this.sommets[i], this.sommets[0]);
-		}
+		this.sommets.translate(vect.getX(), vect.getY());
+		this.decalerBornes(vect.getX(), vect.getY());
 	}
-	
+
 	public void rotate(double alpha) {
-		for(int i = 0; i < this.sommets.length ; i++) {
-			this.sommets[i].rotate(alpha);
-			//this.segments[i].translate(vect);
+		this.sommets.rotate(alpha);
+		this.invaliderBornes();
+	}
+
+	public void transform(Affine t) {
+		this.sommets.transform(t);
+		this.invaliderBornes();
+		this.transformerMesures(t);
+	}
+
+	// vue d'un sommet stocké dans le VertexBuffer d'un polygone : le modifier
+	// invalide la boîte englobante et les mesures du polygone
+	private static class Sommet extends Point {
+		private final Polygon polygone;
+		private final VertexBuffer buffer;
+		private final int index;
+
+		Sommet(Polygon polygone, int index) {
+			super(0, 0);
+			this.polygone = polygone;
+			this.buffer = polygone.sommets;
+			this.index = index;
+		}
+
+		public double getX() {
+			return this.buffer.getX(this.index);
 		}
-		
-		// on reconstruit les segments pour un eventuel appel de draw()
-		for(int i = 0; i < this.sommets.length ; i++) {
-			if(i != this.sommets.length - 1)
-				segments[i] = new Segment(this.sommets[i], this.sommets[i+1]);
-			else
-				segments[i] = new Segment(this.sommets[i], this.sommets[0]);
+
+		public double getY() {
+			return this.buffer.getY(this.index);
+		}
+
+		// écrit dans le tableau de sommets : les méthodes de Point qui déplacent
+		// le point déplacent donc le sommet
+		protected void setCoordonnees(double x, double y) {
+			this.buffer.set(this.index, x, y);
+			this.polygone.invaliderBornes();
+			this.polygone.invaliderMesures();
+		}
+
+		// le sommet change dès que son polygone change
+		int getModifications() {
+			return this.polygone.getModifications();
+		}
+
+		protected int etatDependances() {
+			return this.polygone.getModifications();
 		}
 	}
 }
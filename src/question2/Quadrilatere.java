@@ -7,13 +7,21 @@ public class Quadrilatere extends Polygon {
 	}
 	
 	public boolean estParallelogramme() {
-		Point a = this.sommets[0];
-		Point b = this.sommets[1];
-		Point c = this.sommets[2];
-		Point d = this.sommets[3];
+		Point a = this.getSommet(0);
+		Point b = this.getSommet(1);
+		Point c = this.getSommet(2);
+		Point d = this.getSommet(3);
+		return estParallelogramme(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY(), d.getX(), d.getY());
+	}
+	
+	// partagé avec ShapeAnalytics pour que les résultats soient identiques
+	static boolean estParallelogramme(double ax, double ay, double bx, double by,
+			double cx, double cy, double dx, double dy) {
+		double ab = Point.distance(ax, ay, bx, by), ac = Point.distance(ax, ay, cx, cy), ad = Point.distance(ax, ay, dx, dy);
+		double bc = Point.distance(bx, by, cx, cy), bd = Point.distance(bx, by, dx, dy), cd = Point.distance(cx, cy, dx, dy);
 		// vérifier si deux segments opposés sont égaux selon les ordres possibles de points
-		return (a.distanceA(b) == d.distanceA(c) && a.distanceA(d) == b.distanceA(c)) ||
-				(a.distanceA(d) == c.distanceA(b) && a.distanceA(c) == d.distanceA(b)) ||
-				(a.distanceA(c) == b.distanceA(d) && a.distanceA(b) == c.distanceA(d));
+		return (ab == cd && ad == bc) ||
+				(ad == bc && ac == bd) ||
+				(ac == bd && ab == cd);
 	}
 }
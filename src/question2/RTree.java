@@ -0,0 +1,467 @@
+package question2;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+
+// R-tree des boîtes englobantes d'éléments. Construction en bloc par Sort-Tile-Recursive (STR), puis mises
+// à jour incrémentales : insertion dans la feuille qui s'agrandit le moins,
+// découpage quadratique de Guttman, suppression sans rééquilibrage (un noeud
+// n'est retiré que lorsqu'il devient vide).
+class RTree implements SpatialIndex {
+	// nombre maximal d'entrées par noeud
+	static final int M = 16;
+	// nombre minimal d'entrées dans chaque moitié d'un noeud découpé
+	private static final int MIN = M / 3;
+
+	private static class Noeud {
+		final boolean feuille;
+		int n = 0;
+		// boîtes des entrées (une de plus que M, le temps d'un découpage)
+		final double[] minX = new double[M + 1];
+		final double[] minY = new double[M + 1];
+		final double[] maxX = new double[M + 1];
+		final double[] maxY = new double[M + 1];
+		// enfants d'un noeud interne, ou indices des éléments d'une feuille
+		final Noeud[] enfants;
+		final int[] ids;
+		Noeud parent = null;
+
+		Noeud(boolean feuille) {
+			this.feuille = feuille;
+			this.enfants = feuille ? null : new Noeud[M + 1];
+			this.ids = feuille ? new int[M + 1] : null;
+		}
+
+		// place de l'enfant dans ce noeud
+		int place(Noeud enfant) {
+			for(int k = 0 ; k < this.n ; k++)
+				if(this.enfants[k] == enfant)
+					return k;
+			return -1;
+		}
+
+		int place(int id) {
+			for(int k = 0 ; k < this.n ; k++)
+				if(this.ids[k] == id)
+					return k;
+			return -1;
+		}
+
+		// retire l'entrée k en la remplaçant par la dernière
+		void retirer(int k) {
+			int d = --this.n;
+			this.minX[k] = this.minX[d];
+			this.minY[k] = this.minY[d];
+			this.maxX[k] = this.maxX[d];
+			this.maxY[k] = this.maxY[d];
+			if(this.feuille)
+				this.ids[k] = this.ids[d];
+			else
+				this.enfants[k] = this.enfants[d];
+		}
+	}
+
+	private Noeud racine = new Noeud(true);
+	// feuille qui contient chaque élément, null s'il n'est pas dans l'arbre
+	private Noeud[] feuilles = new Noeud[0];
+	private int taille = 0;
+
+	public int taille() {
+		return this.taille;
+	}
+
+	// reconstruit l'arbre pour les éléments 0 à boites.length - 1 ;
+	// les boîtes vides ne sont pas indexées
+	public void construire(BoundingBox[] boites) {
+		int n = boites.length;
+		this.feuilles = new Noeud[n];
+		this.taille = 0;
+
+		double[] minX = new double[n], minY = new double[n], maxX = new double[n], maxY = new double[n];
+		int[] ids = new int[n];
+		for(int i = 0 ; i < n ; i++) {
+			BoundingBox b = boites[i];
+			if(b.isEmpty())
+				continue;
+			minX[this.taille] = b.getMinX();
+			minY[this.taille] = b.getMinY();
+			maxX[this.taille] = b.getMaxX();
+			maxY[this.taille] = b.getMaxY();
+			ids[this.taille++] = i;
+		}
+
+		Noeud[] niveau = empiler(this.taille, minX, minY, maxX, maxY, ids, null);
+		while(niveau.length > 1) {
+			int nb = niveau.length;
+			for(int k = 0 ; k < nb ; k++) {
+				Noeud noeud = niveau[k];
+				minX[k] = min(noeud.minX, noeud.n);
+				minY[k] = min(noeud.minY, noeud.n);
+				maxX[k] = max(noeud.maxX, noeud.n);
+				maxY[k] = max(noeud.maxY, noeud.n);
+			}
+			niveau = empiler(nb, minX, minY, maxX, maxY, null, niveau);
+		}
+		this.racine = niveau.length == 0 ? new Noeud(true) : niveau[0];
+		this.racine.parent = null;
+	}
+
+	// Regroupe nb entrées en noeuds de M entrées (STR) : tri par centre en x,
+	// découpage en tranches verticales de S*M entrées, tri de chaque tranche
+	// par centre en y. Les entrées sont des éléments si ids n'est pas null,
+	// des noeuds sinon.
+	private Noeud[] empiler(int nb, double[] minX, double[] minY, double[] maxX, double[] maxY, int[] ids, Noeud[] enfants) {
+		int nbNoeuds = (nb + M - 1) / M;
+		int parTranche = (int) Math.ceil(Math.sqrt(nbNoeuds)) * M;
+
+		long[] ordre = new long[nb];
+		for(int i = 0 ; i < nb ; i++)
+			ordre[i] = cle(minX[i] + maxX[i], i);
+		Arrays.sort(ordre);
+		for(int debut = 0 ; debut < nb ; debut += parTranche) {
+			int fin = Math.min(nb, debut + parTranche);
+			for(int k = debut ; k < fin ; k++) {
+				int i = (int) ordre[k];
+				ordre[k] = cle(minY[i] + maxY[i], i);
+			}
+			Arrays.sort(ordre, debut, fin);
+		}
+
+		Noeud[] noeuds = new Noeud[nbNoeuds];
+		for(int k = 0 ; k < nb ; k++) {
+			Noeud noeud = noeuds[k / M];
+			if(noeud == null)
+				noeud = noeuds[k / M] = new Noeud(ids != null);
+			int i = (int) ordre[k];
+			int j = noeud.n++;
+			noeud.minX[j] = minX[i];
+			noeud.minY[j] = minY[i];
+			noeud.maxX[j] = maxX[i];
+			noeud.maxY[j] = maxY[i];
+			if(ids != null) {
+				noeud.ids[j] = ids[i];
+				this.feuilles[ids[i]] = noeud;
+			}
+			else {
+				noeud.enfants[j] = enfants[i];
+				enfants[i].parent = noeud;
+			}
+		}
+		return noeuds;
+	}
+
+	// clé de tri : valeur (en float, dont l'ordre des bits est rendu
+	// croissant) dans les 32 bits de poids fort, indice dans les autres
+	private static long cle(double valeur, int i) {
+		int bits = Float.floatToIntBits((float) valeur);
+		bits ^= (bits >> 31) & 0x7fffffff;
+		return ((long) bits << 32) | i;
+	}
+
+	public void inserer(int id, BoundingBox b) {
+		if(b.isEmpty())
+			return;
+		if(id >= this.feuilles.length)
+			this.feuilles = Arrays.copyOf(this.feuilles, Math.max(id + 1, 2 * this.feuilles.length));
+		double x0 = b.getMinX(), y0 = b.getMinY(), x1 = b.getMaxX(), y1 = b.getMaxY();
+
+		// descente vers la feuille dont la boîte s'agrandit le moins
+		Noeud noeud = this.racine;
+		while(!noeud.feuille) {
+			int meilleur = 0;
+			double agrandissement = Double.POSITIVE_INFINITY, aire = Double.POSITIVE_INFINITY;
+			for(int k = 0 ; k < noeud.n ; k++) {
+				double a = aire(noeud.minX[k], noeud.minY[k], noeud.maxX[k], noeud.maxY[k]);
+				double d = aire(Math.min(x0, noeud.minX[k]), Math.min(y0, noeud.minY[k]),
+						Math.max(x1, noeud.maxX[k]), Math.max(y1, noeud.maxY[k])) - a;
+				if(d < agrandissement || (d == agrandissement && a < aire)) {
+					meilleur = k;
+					agrandissement = d;
+					aire = a;
+				}
+			}
+			noeud = noeud.enfants[meilleur];
+		}
+
+		int j = noeud.n++;
+		noeud.minX[j] = x0;
+		noeud.minY[j] = y0;
+		noeud.maxX[j] = x1;
+		noeud.maxY[j] = y1;
+		noeud.ids[j] = id;
+		this.feuilles[id] = noeud;
+		this.taille++;
+
+		// découpage des noeuds pleins, en remontant
+		while(noeud.n > M) {
+			Noeud frere = this.decouper(noeud);
+			Noeud parent = noeud.parent;
+			if(parent == null) {
+				parent = new Noeud(false);
+				parent.n = 1;
+				parent.enfants[0] = noeud;
+				noeud.parent = parent;
+				this.racine = parent;
+			}
+			this.majBoite(parent, parent.place(noeud), noeud);
+			int k = parent.n++;
+			parent.enfants[k] = frere;
+			frere.parent = parent;
+			this.majBoite(parent, k, frere);
+			noeud = parent;
+		}
+		this.ajuster(noeud);
+	}
+
+	public void supprimer(int id) {
+		if(id >= this.feuilles.length || this.feuilles[id] == null)
+			return;
+		Noeud noeud = this.feuilles[id];
+		this.feuilles[id] = null;
+		noeud.retirer(noeud.place(id));
+		this.taille--;
+
+		// les noeuds vides sont retirés de leur parent
+		while(noeud.n == 0 && noeud.parent != null) {
+			Noeud parent = noeud.parent;
+			parent.retirer(parent.place(noeud));
+			noeud = parent;
+		}
+		if(noeud.n == 0)
+			this.racine = new Noeud(true);
+		else
+			this.ajuster(noeud);
+
+		// une racine interne à un seul enfant est inutile
+		while(!this.racine.feuille && this.racine.n == 1) {
+			this.racine = this.racine.enfants[0];
+			this.racine.parent = null;
+		}
+	}
+
+	// Nouvelle boîte de l'élément id. Si elle reste dans la boîte de sa
+	// feuille, seule l'entrée est modifiée ; sinon l'élément est réinséré.
+	public void deplacer(int id, BoundingBox b) {
+		Noeud feuille = id < this.feuilles.length ? this.feuilles[id] : null;
+		if(feuille == null || b.isEmpty()) {
+			this.supprimer(id);
+			this.inserer(id, b);
+			return;
+		}
+		Noeud parent = feuille.parent;
+		int p = parent == null ? -1 : parent.place(feuille);
+		if(parent == null || (b.getMinX() >= parent.minX[p] && b.getMinY() >= parent.minY[p]
+				&& b.getMaxX() <= parent.maxX[p] && b.getMaxY() <= parent.maxY[p])) {
+			int k = feuille.place(id);
+			feuille.minX[k] = b.getMinX();
+			feuille.minY[k] = b.getMinY();
+			feuille.maxX[k] = b.getMaxX();
+			feuille.maxY[k] = b.getMaxY();
+			return;
+		}
+		this.supprimer(id);
+		this.inserer(id, b);
+	}
+
+	// appelle action pour chaque élément dont la boîte rencontre [x0, x1] x [y0, y1]
+	public void chercher(double x0, double y0, double x1, double y1, IntConsumer action) {
+		Noeud[] pile = new Noeud[4 * M];
+		int sommet = 0;
+		pile[sommet++] = this.racine;
+		while(sommet > 0) {
+			Noeud noeud = pile[--sommet];
+			for(int k = 0 ; k < noeud.n ; k++) {
+				if(noeud.maxX[k] < x0 || noeud.minX[k] > x1 || noeud.maxY[k] < y0 || noeud.minY[k] > y1)
+					continue;
+				if(noeud.feuille)
+					action.accept(noeud.ids[k]);
+				else {
+					if(sommet == pile.length)
+						pile = Arrays.copyOf(pile, 2 * sommet);
+					pile[sommet++] = noeud.enfants[k];
+				}
+			}
+		}
+	}
+
+	// élément dont la boîte est la plus proche de (x, y), -1 si l'arbre est vide ;
+	// parcours par ordre de distance croissante (meilleur d'abord)
+	public int plusProche(double x, double y) {
+		PriorityQueue<Candidat> file = new PriorityQueue<>();
+		file.add(new Candidat(0, this.racine, -1));
+		while(!file.isEmpty()) {
+			Candidat c = file.poll();
+			if(c.noeud == null)
+				return c.id;
+			Noeud noeud = c.noeud;
+			for(int k = 0 ; k < noeud.n ; k++) {
+				double d = distance2(x, y, noeud.minX[k], noeud.minY[k], noeud.maxX[k], noeud.maxY[k]);
+				if(noeud.feuille)
+					file.add(new Candidat(d, null, noeud.ids[k]));
+				else
+					file.add(new Candidat(d, noeud.enfants[k], -1));
+			}
+		}
+		return -1;
+	}
+
+	private static class Candidat implements Comparable<Candidat> {
+		final double distance2;
+		final Noeud noeud;
+		final int id;
+
+		Candidat(double distance2, Noeud noeud, int id) {
+			this.distance2 = distance2;
+			this.noeud = noeud;
+			this.id = id;
+		}
+
+		public int compareTo(Candidat c) {
+			return Double.compare(this.distance2, c.distance2);
+		}
+	}
+
+	// carré de la distance de (x, y) à la boîte, nul à l'intérieur
+	private static double distance2(double x, double y, double x0, double y0, double x1, double y1) {
+		double dx = Math.max(Math.max(x0 - x, 0), x - x1);
+		double dy = Math.max(Math.max(y0 - y, 0), y - y1);
+		return dx*dx + dy*dy;
+	}
+
+	// Découpage quadratique : les deux entrées qui gâcheraient le plus de place
+	// ensemble servent de germes, puis chaque entrée restante va au groupe que
+	// son ajout agrandit le moins, en commençant par celle qui a la plus nette
+	// préférence. Le noeud garde le premier groupe, le second est renvoyé.
+	private Noeud decouper(Noeud noeud) {
+		int n = noeud.n;
+		double[] minX = Arrays.copyOf(noeud.minX, n), minY = Arrays.copyOf(noeud.minY, n);
+		double[] maxX = Arrays.copyOf(noeud.maxX, n), maxY = Arrays.copyOf(noeud.maxY, n);
+		int[] ids = noeud.feuille ? Arrays.copyOf(noeud.ids, n) : null;
+		Noeud[] enfants = noeud.feuille ? null : Arrays.copyOf(noeud.enfants, n);
+
+		int germeA = 0, germeB = 1;
+		double pire = Double.NEGATIVE_INFINITY;
+		for(int i = 0 ; i < n ; i++)
+			for(int j = i + 1 ; j < n ; j++) {
+				double d = aire(Math.min(minX[i], minX[j]), Math.min(minY[i], minY[j]),
+						Math.max(maxX[i], maxX[j]), Math.max(maxY[i], maxY[j]))
+						- aire(minX[i], minY[i], maxX[i], maxY[i]) - aire(minX[j], minY[j], maxX[j], maxY[j]);
+				if(d > pire) {
+					pire = d;
+					germeA = i;
+					germeB = j;
+				}
+			}
+
+		Noeud frere = new Noeud(noeud.feuille);
+		noeud.n = 0;
+		boolean[] place = new boolean[n];
+		this.ajouterEntree(noeud, minX, minY, maxX, maxY, ids, enfants, germeA);
+		this.ajouterEntree(frere, minX, minY, maxX, maxY, ids, enfants, germeB);
+		place[germeA] = place[germeB] = true;
+		// boîtes des deux groupes
+		double[] a = {minX[germeA], minY[germeA], maxX[germeA], maxY[germeA]};
+		double[] b = {minX[germeB], minY[germeB], maxX[germeB], maxY[germeB]};
+
+		for(int restantes = n - 2 ; restantes > 0 ; restantes--) {
+			// un groupe qui n'atteindrait pas le minimum prend tout le reste
+			Noeud groupe = null;
+			if(noeud.n + restantes <= MIN)
+				groupe = noeud;
+			else if(frere.n + restantes <= MIN)
+				groupe = frere;
+
+			int suivante = -1;
+			double dA = 0, dB = 0, preference = -1;
+			for(int i = 0 ; i < n ; i++) {
+				if(place[i])
+					continue;
+				double da = agrandissement(a, minX[i], minY[i], maxX[i], maxY[i]);
+				double db = agrandissement(b, minX[i], minY[i], maxX[i], maxY[i]);
+				if(Math.abs(da - db) > preference) {
+					preference = Math.abs(da - db);
+					suivante = i;
+					dA = da;
+					dB = db;
+				}
+			}
+			if(groupe == null) {
+				if(dA != dB)
+					groupe = dA < dB ? noeud : frere;
+				else if(aire(a) != aire(b))
+					groupe = aire(a) < aire(b) ? noeud : frere;
+				else
+					groupe = noeud.n <= frere.n ? noeud : frere;
+			}
+			this.ajouterEntree(groupe, minX, minY, maxX, maxY, ids, enfants, suivante);
+			place[suivante] = true;
+			double[] boite = groupe == noeud ? a : b;
+			boite[0] = Math.min(boite[0], minX[suivante]);
+			boite[1] = Math.min(boite[1], minY[suivante]);
+			boite[2] = Math.max(boite[2], maxX[suivante]);
+			boite[3] = Math.max(boite[3], maxY[suivante]);
+		}
+		return frere;
+	}
+
+	private void ajouterEntree(Noeud noeud, double[] minX, double[] minY, double[] maxX, double[] maxY,
+			int[] ids, Noeud[] enfants, int i) {
+		int j = noeud.n++;
+		noeud.minX[j] = minX[i];
+		noeud.minY[j] = minY[i];
+		noeud.maxX[j] = maxX[i];
+		noeud.maxY[j] = maxY[i];
+		if(noeud.feuille) {
+			noeud.ids[j] = ids[i];
+			this.feuilles[ids[i]] = noeud;
+		}
+		else {
+			noeud.enfants[j] = enfants[i];
+			enfants[i].parent = noeud;
+		}
+	}
+
+	// recalcule les boîtes des ancêtres du noeud, jusqu'à la racine
+	private void ajuster(Noeud noeud) {
+		while(noeud.parent != null) {
+			Noeud parent = noeud.parent;
+			this.majBoite(parent, parent.place(noeud), noeud);
+			noeud = parent;
+		}
+	}
+
+	// l'entrée k du parent devient la boîte de l'enfant
+	private void majBoite(Noeud parent, int k, Noeud enfant) {
+		parent.minX[k] = min(enfant.minX, enfant.n);
+		parent.minY[k] = min(enfant.minY, enfant.n);
+		parent.maxX[k] = max(enfant.maxX, enfant.n);
+		parent.maxY[k] = max(enfant.maxY, enfant.n);
+	}
+
+	private static double min(double[] v, int n) {
+		double m = Double.POSITIVE_INFINITY;
+		for(int i = 0 ; i < n ; i++)
+			if(v[i] < m) m = v[i];
+		return m;
+	}
+
+	private static double max(double[] v, int n) {
+		double m = Double.NEGATIVE_INFINITY;
+		for(int i = 0 ; i < n ; i++)
+			if(v[i] > m) m = v[i];
+		return m;
+	}
+
+	private static double aire(double x0, double y0, double x1, double y1) {
+		return (x1 - x0) * (y1 - y0);
+	}
+
+	private static double aire(double[] b) {
+		return aire(b[0], b[1], b[2], b[3]);
+	}
+
+	private static double agrandissement(double[] b, double x0, double y0, double x1, double y1) {
+		return aire(Math.min(b[0], x0), Math.min(b[1], y0), Math.max(b[2], x1), Math.max(b[3], y1)) - aire(b);
+	}
+}
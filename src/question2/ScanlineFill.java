@@ -0,0 +1,224 @@
+package question2;
+
+import java.util.Arrays;
+
+import interaction.Surface;
+
+// Remplissage de polygone par balayage de lignes avec table des arêtes actives.
+// Un pixel (x, y) est rempli si son centre (x + 0.5, y + 0.5) est à l'intérieur
+// du polygone ; chaque ligne est écrite par segments horizontaux (fillSpan).
+// Un polygone qui déborde de la surface est d'abord découpé par son
+// rectangle élargi d'un pixel (Sutherland-Hodgman) : les arêtes hors de la
+// surface ne restent pas dans la table des arêtes actives.
+// L'abscisse d'une arête est calculée directement sur chaque ligne, et non
+// par additions successives de la pente : les lignes sont indépendantes, et
+// seules celles de la zone que laisse passer la surface (une tuile de
+// TileRenderer) sont balayées, avec les mêmes pixels que le balayage complet.
+// Les tableaux de travail sont réutilisés d'un appel à l'autre, une instance par thread.
+class ScanlineFill {
+	private static final ThreadLocal<ScanlineFill> INSTANCE = ThreadLocal.withInitial(ScanlineFill::new);
+
+	// table des arêtes, triée par première ligne couverte
+	private int[] yDebut = new int[16];
+	private int[] yFin = new int[16];
+	private double[] x = new double[16];
+	// extrémité basse de l'arête, d'où x est calculé sur chaque ligne
+	private double[] origineX = new double[16];
+	private double[] origineY = new double[16];
+	private double[] pente = new double[16];
+	private int[] sens = new int[16];
+	private long[] ordre = new long[16];
+
+	// table des arêtes actives, triée par x sur la ligne courante
+	private int[] actives = new int[16];
+
+	private double[] sommetsX = new double[16];
+	private double[] sommetsY = new double[16];
+
+	// tampons du découpage, échangés avec sommetsX et sommetsY à chaque demi-plan
+	private double[] decoupeX = new double[16];
+	private double[] decoupeY = new double[16];
+
+	static void fill(Surface painter, double[] xs, double[] ys, int n, Affine t, FillRule regle) {
+		INSTANCE.get().remplir(painter, xs, ys, n, t, regle);
+	}
+
+	private void remplir(Surface painter, double[] xs, double[] ys, int n, Affine t, FillRule regle) {
+		if(n < 3)
+			return;
+		this.reserver(n);
+
+		double[] px = this.sommetsX, py = this.sommetsY;
+		double xMin = Double.POSITIVE_INFINITY, xMax = Double.NEGATIVE_INFINITY;
+		double yMin = Double.POSITIVE_INFINITY, yMax = Double.NEGATIVE_INFINITY;
+		for(int i = 0 ; i < n ; i++) {
+			double x = t.transformX(xs[i], ys[i]), y = t.transformY(xs[i], ys[i]);
+			px[i] = x;
+			py[i] = y;
+			xMin = Math.min(xMin, x);
+			xMax = Math.max(xMax, x);
+			yMin = Math.min(yMin, y);
+			yMax = Math.max(yMax, y);
+		}
+
+		int largeur = painter.getWidth(), hauteur = painter.getHeight();
+		if(xMax < -1 || xMin > largeur || yMax < -1 || yMin > hauteur)
+			return;
+		if(xMin < -1 || xMax > largeur || yMin < -1 || yMax > hauteur) {
+			n = this.decouper(n, largeur, hauteur);
+			if(n < 3)
+				return;
+			px = this.sommetsX;
+			py = this.sommetsY;
+		}
+
+		java.awt.Rectangle zone = painter.getClipBounds();
+		int ligneMin = Math.max(0, zone.y), ligneMax = Math.min(hauteur - 1, zone.y + zone.height - 1);
+
+		int nbAretes = 0;
+		for(int i = 0 ; i < n ; i++) {
+			int j = (i == n - 1) ? 0 : i + 1;
+			double x0 = px[i], y0 = py[i], x1 = px[j], y1 = py[j];
+			int s = 1;
+			if(y0 > y1) {
+				double tmp = x0; x0 = x1; x1 = tmp;
+				tmp = y0; y0 = y1; y1 = tmp;
+				s = -1;
+			}
+			// lignes dont le centre est dans [y0, y1[
+			int debut = (int) Math.ceil(y0 - 0.5);
+			int fin = (int) Math.ceil(y1 - 0.5) - 1;
+			if(debut > fin || fin < ligneMin || debut > ligneMax)
+				continue;
+
+			double p = (x1 - x0) / (y1 - y0);
+			if(debut < ligneMin)
+				debut = ligneMin;
+			if(fin > ligneMax)
+				fin = ligneMax;
+
+			this.yDebut[nbAretes] = debut;
+			this.yFin[nbAretes] = fin;
+			this.x[nbAretes] = x0 + (debut + 0.5 - y0) * p;
+			this.origineX[nbAretes] = x0;
+			this.origineY[nbAretes] = y0;
+			this.pente[nbAretes] = p;
+			this.sens[nbAretes] = s;
+			this.ordre[nbAretes] = ((long) debut << 32) | nbAretes;
+			nbAretes++;
+		}
+		if(nbAretes == 0)
+			return;
+
+		Arrays.sort(this.ordre, 0, nbAretes);
+
+		int suivante = 0;
+		int nbActives = 0;
+		int y = (int) (this.ordre[0] >> 32);
+		while(suivante < nbAretes || nbActives > 0) {
+			// ajout des arêtes qui commencent sur cette ligne
+			while(suivante < nbAretes && (int) (this.ordre[suivante] >> 32) == y) {
+				this.actives[nbActives++] = (int) this.ordre[suivante];
+				suivante++;
+			}
+
+			// tri par insertion : l'ordre change peu d'une ligne à l'autre
+			for(int i = 1 ; i < nbActives ; i++) {
+				int e = this.actives[i];
+				double xe = this.x[e];
+				int k = i - 1;
+				while(k >= 0 && this.x[this.actives[k]] > xe) {
+					this.actives[k + 1] = this.actives[k];
+					k--;
+				}
+				this.actives[k + 1] = e;
+			}
+
+			if(regle == FillRule.EVEN_ODD) {
+				for(int i = 0 ; i + 1 < nbActives ; i += 2)
+					span(painter, y, this.x[this.actives[i]], this.x[this.actives[i + 1]]);
+			}
+			else {
+				int enroulement = 0;
+				double xDebut = 0;
+				for(int i = 0 ; i < nbActives ; i++) {
+					int e = this.actives[i];
+					if(enroulement == 0)
+						xDebut = this.x[e];
+					enroulement += this.sens[e];
+					if(enroulement == 0)
+						span(painter, y, xDebut, this.x[e]);
+				}
+			}
+
+			// avance d'une ligne et retrait des arêtes terminées
+			int k = 0;
+			for(int i = 0 ; i < nbActives ; i++) {
+				int e = this.actives[i];
+				if(this.yFin[e] > y) {
+					this.x[e] = this.origineX[e] + (y + 1.5 - this.origineY[e]) * this.pente[e];
+					this.actives[k++] = e;
+				}
+			}
+			nbActives = k;
+			y++;
+			if(nbActives == 0 && suivante < nbAretes)
+				y = (int) (this.ordre[suivante] >> 32);
+		}
+	}
+
+	// pixels dont le centre est dans [xa, xb[
+	private static void span(Surface painter, int y, double xa, double xb) {
+		int x0 = (int) Math.ceil(xa - 0.5);
+		int x1 = (int) Math.ceil(xb - 0.5) - 1;
+		if(x0 <= x1)
+			painter.fillSpan(y, x0, x1, true);
+	}
+
+	// Découpe les n sommets de sommetsX et sommetsY par le rectangle
+	// [-1, largeur] x [-1, hauteur], qui contient les centres de tous les
+	// pixels ; le résultat est dans sommetsX et sommetsY, renvoie son nombre
+	// de sommets.
+	private int decouper(int n, int largeur, int hauteur) {
+		n = this.demiPlan(n, false, -1, true);
+		n = this.demiPlan(n, false, hauteur, false);
+		n = this.demiPlan(n, true, -1, true);
+		n = this.demiPlan(n, true, largeur, false);
+		this.reserver(n);
+		return n;
+	}
+
+	private int demiPlan(int n, boolean surX, double limite, boolean superieur) {
+		if(this.decoupeX.length < 2 * n) {
+			this.decoupeX = new double[2 * n];
+			this.decoupeY = new double[2 * n];
+		}
+		int m = Decoupage.demiPlan(this.sommetsX, this.sommetsY, n, surX, limite, superieur, this.decoupeX, this.decoupeY);
+		double[] tx = this.sommetsX, ty = this.sommetsY;
+		this.sommetsX = this.decoupeX;
+		this.sommetsY = this.decoupeY;
+		this.decoupeX = tx;
+		this.decoupeY = ty;
+		return m;
+	}
+
+	// les sommets déjà écrits sont conservés
+	private void reserver(int n) {
+		if(this.yDebut.length >= n)
+			return;
+		int taille = Math.max(n, 2 * this.yDebut.length);
+		this.yDebut = new int[taille];
+		this.yFin = new int[taille];
+		this.x = new double[taille];
+		this.origineX = new double[taille];
+		this.origineY = new double[taille];
+		this.pente = new double[taille];
+		this.sens = new int[taille];
+		this.ordre = new long[taille];
+		this.actives = new int[taille];
+		if(this.sommetsX.length < taille) {
+			this.sommetsX = Arrays.copyOf(this.sommetsX, taille);
+			this.sommetsY = Arrays.copyOf(this.sommetsY, taille);
+		}
+	}
+}
@@ -1,6 +1,6 @@
 package question2;
 
-import interaction.Painter;
+import interaction.Surface;
 
 public class Segment extends GraphicalElement{
 	private Point p1;
@@ -11,28 +11,225 @@ public class Segment extends GraphicalElement{
 		this.p2 = p2;
 	}
 	
-	public void draw(Painter painter) {
-		double max = Math.max(Math.abs(this.p1.getX() - this.p2.getX()), Math.abs(this.p1.getY() - this.p2.getY()));
-		double diffX = (p2.getX() - p1.getX()) / max;
-		double diffY = (p2.getY() - p1.getY()) / max;
-		
-		double posX = this.p1.getX() + 0.5;
-		double posY = this.p1.getY() + 0.5;
-		
-		for(int i = 0 ; i < (int) max ; i++) {
-			painter.setPixel((int) posX, (int) posY, true);
-			posX +=  diffX;
-			posY +=  diffY;
-		}		
+	public void draw(Surface painter) {
+		drawLine(painter, this.p1.getX(), this.p1.getY(), this.p2.getX(), this.p2.getY());
+	}
+	
+	public void draw(Surface painter, Affine t) {
+		double x1 = this.p1.getX(), y1 = this.p1.getY();
+		double x2 = this.p2.getX(), y2 = this.p2.getY();
+		drawLine(painter, t.transformX(x1, y1), t.transformY(x1, y1), t.transformX(x2, y2), t.transformY(x2, y2));
+	}
+	
+	// trace un segment directement depuis ses coordonnées, sans objet Point.
+	// Un segment entièrement d'un côté de la zone de dessin est écarté par
+	// les codes de Cohen-Sutherland ; sinon il est découpé selon la zone
+	// (Liang-Barsky), puis tracé par l'algorithme de Bresenham en
+	// arithmétique entière, extrémités comprises.
+	static void drawLine(Surface painter, double x1, double y1, double x2, double y2) {
+		int largeur = painter.getWidth(), hauteur = painter.getHeight();
+		// java.awt.Rectangle, à ne pas confondre avec la forme du paquetage ;
+		// null si la surface laisse tout passer (pas une tuile de TileRenderer)
+		java.awt.Rectangle zone = painter.getClipBounds();
+		if(zone.x == 0 && zone.y == 0 && zone.width == largeur && zone.height == hauteur)
+			zone = null;
+		// le pixel i couvre [i - 0.5, i + 0.5[ une fois arrondi
+		double xMax = largeur - 0.5, yMax = hauteur - 0.5;
+		// cas le plus courant, les deux extrémités dans la zone : rien à découper
+		if(x1 >= -0.5 && x1 <= xMax && y1 >= -0.5 && y1 <= yMax
+				&& x2 >= -0.5 && x2 <= xMax && y2 >= -0.5 && y2 <= yMax)
+			bresenham(painter, zone, arrondi(x1, largeur), arrondi(y1, hauteur), arrondi(x2, largeur), arrondi(y2, hauteur));
+		else
+			decouper(painter, zone, x1, y1, x2, y2, xMax, yMax);
+	}
+
+	private static void decouper(Surface painter, java.awt.Rectangle zone, double x1, double y1, double x2, double y2,
+			double xMax, double yMax) {
+		double xMin = -0.5, yMin = -0.5;
+		double dx = x2 - x1, dy = y2 - y1;
+		double t0 = 0, t1 = 1;
+
+		int code1 = Decoupage.code(x1, y1, xMin, yMin, xMax, yMax);
+		int code2 = Decoupage.code(x2, y2, xMin, yMin, xMax, yMax);
+		if((code1 & code2) != 0)
+			return;
+		// intervalle des paramètres t pour lesquels x1 + t*dx est dans [xMin, xMax]
+		if(dx == 0) {
+			if(x1 < xMin || x1 > xMax)
+				return;
+		}
+		else {
+			double ta = (xMin - x1) / dx, tb = (xMax - x1) / dx;
+			t0 = Math.max(t0, Math.min(ta, tb));
+			t1 = Math.min(t1, Math.max(ta, tb));
+		}
+		// idem pour y
+		if(dy == 0) {
+			if(y1 < yMin || y1 > yMax)
+				return;
+		}
+		else {
+			double ta = (yMin - y1) / dy, tb = (yMax - y1) / dy;
+			t0 = Math.max(t0, Math.min(ta, tb));
+			t1 = Math.min(t1, Math.max(ta, tb));
+		}
+		if(t0 > t1)
+			return;
+
+		int largeur = painter.getWidth(), hauteur = painter.getHeight();
+		bresenham(painter, zone, arrondi(x1 + t0 * dx, largeur), arrondi(y1 + t0 * dy, hauteur),
+				arrondi(x1 + t1 * dx, largeur), arrondi(y1 + t1 * dy, hauteur));
+	}
+
+	// Un pixel par colonne (ou par ligne) de l'axe principal, écrit
+	// directement, avec une seule comparaison par pixel. zone est la partie
+	// de la surface que celle-ci laisse passer (une tuile de TileRenderer),
+	// ou null si elle laisse tout passer : les extrémités, déjà sur la
+	// surface, n'ont alors rien à tester.
+	private static void bresenham(Surface painter, java.awt.Rectangle zone, int xa, int ya, int xb, int yb) {
+		if(zone != null && !(zone.contains(xa, ya) && zone.contains(xb, yb))) {
+			bresenhamDecoupe(painter, zone, xa, ya, xb, yb);
+			return;
+		}
+		int ddx = Math.abs(xb - xa), ddy = Math.abs(yb - ya);
+		int sx = xa < xb ? 1 : -1;
+		int sy = ya < yb ? 1 : -1;
+		if(ddx >= ddy)
+			pasX(painter, xa, ya, ddx + 1, sx, sy, ddx, ddy, 2 * ddy - ddx);
+		else
+			pasY(painter, xa, ya, ddy + 1, sx, sy, ddx, ddy, 2 * ddx - ddy);
+	}
+
+	// Segment qui sort de la zone : seuls les pas dont le pixel est dans la
+	// zone sont parcourus, à partir de l'état qu'aurait le tracé complet, si
+	// bien que les pixels sont les mêmes.
+	private static void bresenhamDecoupe(Surface painter, java.awt.Rectangle zone, int xa, int ya, int xb, int yb) {
+		int zx0 = zone.x, zy0 = zone.y;
+		int zx1 = zone.x + zone.width - 1, zy1 = zone.y + zone.height - 1;
+		int ddx = Math.abs(xb - xa), ddy = Math.abs(yb - ya);
+		int sx = xa < xb ? 1 : -1;
+		int sy = ya < yb ? 1 : -1;
+		if(ddx >= ddy) {
+			long pas = pasDansZone(xa, sx, ddx, zx0, zx1, ya, sy, ddy, zy0, zy1);
+			if(pas < 0)
+				return;
+			int premier = (int) (pas >> 32), dernier = (int) pas;
+			long k = avance(premier, ddx, ddy);
+			pasX(painter, xa + sx * premier, ya + sy * (int) k, dernier - premier + 1, sx, sy, ddx, ddy,
+					(int) (2L * ddy - ddx + 2L * ddy * premier - 2L * ddx * k));
+		}
+		else {
+			long pas = pasDansZone(ya, sy, ddy, zy0, zy1, xa, sx, ddx, zx0, zx1);
+			if(pas < 0)
+				return;
+			int premier = (int) (pas >> 32), dernier = (int) pas;
+			long k = avance(premier, ddy, ddx);
+			pasY(painter, xa + sx * (int) k, ya + sy * premier, dernier - premier + 1, sx, sy, ddx, ddy,
+					(int) (2L * ddx - ddy + 2L * ddx * premier - 2L * ddy * k));
+		}
+	}
+
+	// Les pixels d'un segment sont écrits un par un, sans passer par
+	// fillSpan ni setPixels comme ScanlineFill et Cercle : les paliers d'un
+	// segment quelconque ne font qu'un ou deux pixels, et recopier les
+	// coordonnées dans un PixelBatch, ou remplir des paliers aussi courts,
+	// coûte plus cher que setPixel (SegmentBenchmark, voir l'historique).
+
+	// n pixels d'un segment à dominante horizontale (ddx >= ddy), à partir
+	// de (x, y) avec l'erreur err
+	private static void pasX(Surface painter, int x, int y, int n, int sx, int sy, int ddx, int ddy, int err) {
+		for(int i = 0 ; i < n ; i++) {
+			painter.setPixel(x, y, true);
+			if(err > 0) {
+				y += sy;
+				err -= 2 * ddx;
+			}
+			err += 2 * ddy;
+			x += sx;
+		}
+	}
+
+	// idem à dominante verticale (ddy > ddx)
+	private static void pasY(Surface painter, int x, int y, int n, int sx, int sy, int ddx, int ddy, int err) {
+		for(int i = 0 ; i < n ; i++) {
+			painter.setPixel(x, y, true);
+			if(err > 0) {
+				x += sx;
+				err -= 2 * ddy;
+			}
+			err += 2 * ddx;
+			y += sy;
+		}
+	}
+
+	// Nombre de pas faits sur l'axe secondaire après i pas sur l'axe
+	// principal, pour un segment de da pas sur l'un et db <= da sur l'autre :
+	// le plus petit k tel que 2 da k >= 2 db i - da.
+	private static long avance(long i, int da, int db) {
+		if(da == 0)
+			return 0;
+		return -Math.floorDiv(da - 2L * db * i, 2L * da);
+	}
+
+	// Pas i de [0, da] dont le pixel est dans la zone [a0, a1] x [b0, b1],
+	// pour un tracé qui part de (a, b) dans les directions sa et sb (a est
+	// l'axe principal). Renvoie premier << 32 | dernier, ou -1 si aucun.
+	private static long pasDansZone(int a, int sa, int da, int a0, int a1, int b, int sb, int db, int b0, int b1) {
+		long premier = sa > 0 ? (long) a0 - a : (long) a - a1;
+		long dernier = sa > 0 ? (long) a1 - a : (long) a - a0;
+		// plage des avances k permises sur l'axe secondaire
+		long kMin = sb > 0 ? (long) b0 - b : (long) b - b1;
+		long kMax = sb > 0 ? (long) b1 - b : (long) b - b0;
+		if(kMin > db || kMax < 0)
+			return -1;
+		// avance(i) est croissante : premier pas où elle atteint kMin,
+		// dernier où elle vaut encore kMax (db > 0 dans les deux cas)
+		if(kMin > 0)
+			premier = Math.max(premier, Math.floorDiv(2L * da * (kMin - 1) + da, 2L * db) + 1);
+		if(kMax < db)
+			dernier = Math.min(dernier, Math.floorDiv(2L * da * kMax + da, 2L * db));
+		premier = Math.max(premier, 0);
+		dernier = Math.min(dernier, da);
+		if(premier > dernier)
+			return -1;
+		return premier << 32 | dernier;
+	}
+
+	// arrondi au pixel le plus proche, borné à la zone de dessin
+	// (les extrémités découpées tombent sur le bord à une demi-unité près,
+	// v + 0.5 est donc positif ou nul à l'erreur d'arrondi près)
+	private static int arrondi(double v, int max) {
+		int i = (int) (v + 0.5);
+		if(i >= max)
+			return max - 1;
+		return i;
+	}
+
+	protected BoundingBox calculerBornes() {
+		return new BoundingBox(Math.min(this.p1.getX(), this.p2.getX()), Math.min(this.p1.getY(), this.p2.getY()),
+				Math.max(this.p1.getX(), this.p2.getX()), Math.max(this.p1.getY(), this.p2.getY()));
 	}
 	
 	public void translate(Vector vect) {
 		this.p1.translate(vect);
 		this.p2.translate(vect);
+		this.decalerBornes(vect.getX(), vect.getY());
 	}
 	
 	public void rotate (double angle) {
 		this.p1.rotate(angle);
 		this.p2.rotate(angle);
+		this.invaliderBornes();
+	}
+	
+	public void transform(Affine t) {
+		this.p1.transform(t);
+		this.p2.transform(t);
+		this.invaliderBornes();
+	}
+	
+	// les extrémités peuvent être partagées et déplacées sans passer par le segment
+	protected int etatDependances() {
+		return this.p1.getModifications() + this.p2.getModifications();
 	}
 }
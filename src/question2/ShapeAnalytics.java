@@ -0,0 +1,126 @@
+package question2;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+// Calcul en masse des mesures des formes d'un ShapeStore : périmètre, aire,
+// aire latérale du prisme droit, et classement des triangles rectangles et
+// des parallélogrammes. Les formes sont traitées par blocs consécutifs,
+// répartis sur un ForkJoinPool ; chaque bloc terminé est passé à la sortie,
+// sans attendre les autres, ce qui évite de garder tous les résultats.
+//
+// Les calculs sont ceux de Polygon, Triangle et Quadrilatere : pour les
+// mêmes sommets, les résultats sont identiques à ceux des méthodes de Forme.
+public class ShapeAnalytics {
+	static final int TAILLE_BLOC = 4096;
+
+	private ShapeAnalytics() {
+	}
+
+	// La sortie est appelée depuis les threads du pool, plusieurs blocs à la
+	// fois et dans n'importe quel ordre : elle doit pouvoir être appelée en
+	// parallèle. Les blocs ne se recouvrent pas.
+	public static void analyser(ForkJoinPool pool, ShapeStore formes, double h, Consumer<Resultats> sortie) {
+		int nbBlocs = (formes.getNbFormes() + TAILLE_BLOC - 1) / TAILLE_BLOC;
+		if(nbBlocs > 0)
+			pool.invoke(new Tache(formes, h, sortie, 0, nbBlocs));
+	}
+
+	// résultats d'un bloc de formes consécutives, la k-ième étant la forme getPremiere() + k
+	public static final class Resultats {
+		private final int premiere;
+		private final int nb;
+		private final double h;
+		private final double[] perimetres;
+		private final double[] aires;
+		private final boolean[] trianglesRectangles;
+		private final boolean[] parallelogrammes;
+
+		private Resultats(int premiere, int nb, double h) {
+			this.premiere = premiere;
+			this.nb = nb;
+			this.h = h;
+			this.perimetres = new double[nb];
+			this.aires = new double[nb];
+			this.trianglesRectangles = new boolean[nb];
+			this.parallelogrammes = new boolean[nb];
+		}
+
+		public int getPremiere() {
+			return this.premiere;
+		}
+
+		public int getNb() {
+			return this.nb;
+		}
+
+		public double perimetre(int k) {
+			return this.perimetres[k];
+		}
+
+		public double aire(int k) {
+			return this.aires[k];
+		}
+
+		public double aireLateralePrismeDroit(int k) {
+			return this.perimetres[k] * this.h;
+		}
+
+		// faux pour une forme qui n'a pas trois sommets
+		public boolean estTriangleRectangle(int k) {
+			return this.trianglesRectangles[k];
+		}
+
+		// faux pour une forme qui n'a pas quatre sommets
+		public boolean estParallelogramme(int k) {
+			return this.parallelogrammes[k];
+		}
+	}
+
+	private static Resultats calculer(ShapeStore formes, double h, int premiere, int fin) {
+		double[] xs = formes.xs(), ys = formes.ys();
+		int[] debuts = formes.debuts();
+		Resultats r = new Resultats(premiere, fin - premiere, h);
+		for(int i = premiere ; i < fin ; i++) {
+			int d = debuts[i], f = debuts[i + 1], k = i - premiere;
+			r.perimetres[k] = Polygon.perimetre(xs, ys, d, f);
+			r.aires[k] = Polygon.aire(xs, ys, d, f);
+			if(f - d == 3)
+				r.trianglesRectangles[k] = Triangle.estTriangleRectangle(xs[d], ys[d], xs[d + 1], ys[d + 1], xs[d + 2], ys[d + 2]);
+			else if(f - d == 4)
+				r.parallelogrammes[k] = Quadrilatere.estParallelogramme(xs[d], ys[d], xs[d + 1], ys[d + 1],
+						xs[d + 2], ys[d + 2], xs[d + 3], ys[d + 3]);
+		}
+		return r;
+	}
+
+	@SuppressWarnings("serial")
+	private static class Tache extends RecursiveAction {
+		private final ShapeStore formes;
+		private final double h;
+		private final Consumer<Resultats> sortie;
+		private final int premierBloc;
+		private final int finBlocs;
+
+		Tache(ShapeStore formes, double h, Consumer<Resultats> sortie, int premierBloc, int finBlocs) {
+			this.formes = formes;
+			this.h = h;
+			this.sortie = sortie;
+			this.premierBloc = premierBloc;
+			this.finBlocs = finBlocs;
+		}
+
+		protected void compute() {
+			if(this.finBlocs - this.premierBloc == 1) {
+				int premiere = this.premierBloc * TAILLE_BLOC;
+				int fin = Math.min(premiere + TAILLE_BLOC, this.formes.getNbFormes());
+				this.sortie.accept(calculer(this.formes, this.h, premiere, fin));
+				return;
+			}
+			int milieu = (this.premierBloc + this.finBlocs) >>> 1;
+			invokeAll(new Tache(this.formes, this.h, this.sortie, this.premierBloc, milieu),
+					new Tache(this.formes, this.h, this.sortie, milieu, this.finBlocs));
+		}
+	}
+}
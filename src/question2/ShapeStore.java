@@ -0,0 +1,81 @@
+package question2;
+
+import java.util.Arrays;
+
+// Stockage en colonnes d'un grand nombre de polygones : les sommets de
+// toutes les formes sont mis bout à bout dans deux tableaux de doubles, et
+// la forme i occupe les sommets debut(i) à debut(i + 1) - 1. Aucun objet
+// n'est créé par forme ; ShapeAnalytics calcule les mesures directement
+// sur ces tableaux.
+public class ShapeStore {
+	private double[] xs;
+	private double[] ys;
+	// debuts[i] : premier sommet de la forme i, debuts[nbFormes] : nombre de sommets
+	private int[] debuts;
+	private int nbFormes = 0;
+
+	public ShapeStore(int formesPrevues, int sommetsPrevus) {
+		this.xs = new double[Math.max(4, sommetsPrevus)];
+		this.ys = new double[Math.max(4, sommetsPrevus)];
+		this.debuts = new int[Math.max(4, formesPrevues) + 1];
+	}
+
+	public ShapeStore() {
+		this(16, 64);
+	}
+
+	// ajoute la forme dont les sommets sont les n premiers de xs et ys ; renvoie son numéro
+	public int ajouter(double[] xs, double[] ys, int n) {
+		int debut = this.debuts[this.nbFormes];
+		this.reserver(n);
+		System.arraycopy(xs, 0, this.xs, debut, n);
+		System.arraycopy(ys, 0, this.ys, debut, n);
+		this.debuts[++this.nbFormes] = debut + n;
+		return this.nbFormes - 1;
+	}
+
+	// copie les sommets actuels du polygone
+	public int ajouter(Polygon p) {
+		return this.ajouter(p.sommets.xs(), p.sommets.ys(), p.sommets.size());
+	}
+
+	private void reserver(int n) {
+		int fin = this.debuts[this.nbFormes] + n;
+		if(fin > this.xs.length) {
+			int capacite = Math.max(fin, 2 * this.xs.length);
+			this.xs = Arrays.copyOf(this.xs, capacite);
+			this.ys = Arrays.copyOf(this.ys, capacite);
+		}
+		if(this.nbFormes + 1 == this.debuts.length)
+			this.debuts = Arrays.copyOf(this.debuts, 2 * this.debuts.length);
+	}
+
+	public int getNbFormes() {
+		return this.nbFormes;
+	}
+
+	public int getNbSommets(int i) {
+		return this.debuts[i + 1] - this.debuts[i];
+	}
+
+	public double getX(int i, int k) {
+		return this.xs[this.debuts[i] + k];
+	}
+
+	public double getY(int i, int k) {
+		return this.ys[this.debuts[i] + k];
+	}
+
+	// accès direct pour ShapeAnalytics, sans copie
+	double[] xs() {
+		return this.xs;
+	}
+
+	double[] ys() {
+		return this.ys;
+	}
+
+	int[] debuts() {
+		return this.debuts;
+	}
+}
@@ -0,0 +1,44 @@
+package question2;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Index des boîtes englobantes d'éléments repérés par un entier (leur indice
+// dans l'image). Les boîtes vides ne sont pas indexées.
+interface SpatialIndex {
+	static SpatialIndex creer(IndexType type) {
+		return type == IndexType.GRID ? new UniformGrid() : new RTree();
+	}
+
+	int taille();
+
+	// reconstruit l'index pour les éléments 0 à boites.length - 1
+	void construire(BoundingBox[] boites);
+
+	void inserer(int id, BoundingBox b);
+
+	void supprimer(int id);
+
+	// nouvelle boîte de l'élément id
+	void deplacer(int id, BoundingBox b);
+
+	// appelle action pour chaque élément dont la boîte rencontre [x0, x1] x [y0, y1]
+	void chercher(double x0, double y0, double x1, double y1, IntConsumer action);
+
+	// indices, par ordre croissant, des éléments dont la boîte rencontre [x0, x1] x [y0, y1]
+	default int[] chercher(double x0, double y0, double x1, double y1) {
+		int[][] trouves = {new int[16]};
+		int[] nb = {0};
+		this.chercher(x0, y0, x1, y1, id -> {
+			if(nb[0] == trouves[0].length)
+				trouves[0] = Arrays.copyOf(trouves[0], 2 * nb[0]);
+			trouves[0][nb[0]++] = id;
+		});
+		int[] ids = Arrays.copyOf(trouves[0], nb[0]);
+		Arrays.sort(ids);
+		return ids;
+	}
+
+	// élément dont la boîte est la plus proche de (x, y), -1 si l'index est vide
+	int plusProche(double x, double y);
+}
@@ -0,0 +1,119 @@
+package question2;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import interaction.Surface;
+
+// Dessin parallèle par tuiles : la surface est découpée en tuiles carrées,
+// chaque élément est rangé dans les tuiles que couvre sa boîte englobante,
+// puis les tuiles sont dessinées en parallèle, chacune dans une vue découpée
+// de la surface. Les tuiles sont disjointes : aucun verrou n'est nécessaire.
+// Dans une tuile, les éléments sont dessinés dans l'ordre de l'image, et
+// chaque vue a la taille de la surface entière : le résultat est identique
+// pixel pour pixel au dessin séquentiel. Les algorithmes de tracé lisent le
+// rectangle de la vue (getClipBounds) et ne parcourent que ses lignes et
+// ses colonnes : un élément à cheval sur k tuiles n'est pas tracé k fois.
+class TileRenderer {
+	static final int TAILLE_TUILE = 256;
+
+	// en dessous de ce nombre de tuiles, une tâche n'est plus découpée
+	private static final int SEUIL = 4;
+
+	// zone : {xMin, yMin, xMax, yMax}, les éléments qui ne la rencontrent pas
+	// sont écartés ; renvoie leur nombre
+	static int render(ForkJoinPool pool, Surface surface, GraphicalElement[] elements, Affine t, double[] zone) {
+		int largeur = surface.getWidth(), hauteur = surface.getHeight();
+		int nbX = (largeur + TAILLE_TUILE - 1) / TAILLE_TUILE;
+		int nbY = (hauteur + TAILLE_TUILE - 1) / TAILLE_TUILE;
+		int n = elements.length;
+
+		// plage de tuiles couverte par chaque élément
+		int[] tx0 = new int[n], ty0 = new int[n], tx1 = new int[n], ty1 = new int[n];
+		int[] parTuile = new int[nbX * nbY + 1];
+		int ecartes = 0;
+		for(int i = 0 ; i < n ; i++) {
+			if(!elements[i].getBounds().imageRencontre(t, zone[0], zone[1], zone[2], zone[3])) {
+				// plage de tuiles vide : tx1 < tx0
+				tx0[i] = 0;
+				tx1[i] = -1;
+				ecartes++;
+				continue;
+			}
+			BoundingBox b = elements[i].getBounds().transform(t);
+			// marge d'un pixel pour les arrondis des algorithmes de tracé
+			tx0[i] = tuile(Math.floor(b.getMinX()) - 1, nbX);
+			ty0[i] = tuile(Math.floor(b.getMinY()) - 1, nbY);
+			tx1[i] = tuile(Math.ceil(b.getMaxX()) + 1, nbX);
+			ty1[i] = tuile(Math.ceil(b.getMaxY()) + 1, nbY);
+			for(int y = ty0[i] ; y <= ty1[i] ; y++)
+				for(int x = tx0[i] ; x <= tx1[i] ; x++)
+					parTuile[y * nbX + x + 1]++;
+		}
+
+		// listes d'éléments par tuile, mises bout à bout (début de la tuile k : debut[k])
+		int[] debut = parTuile;
+		for(int k = 1 ; k < debut.length ; k++)
+			debut[k] += debut[k - 1];
+		int[] contenu = new int[debut[debut.length - 1]];
+		int[] rempli = new int[nbX * nbY];
+		for(int i = 0 ; i < n ; i++)
+			for(int y = ty0[i] ; y <= ty1[i] ; y++)
+				for(int x = tx0[i] ; x <= tx1[i] ; x++) {
+					int k = y * nbX + x;
+					contenu[debut[k] + rempli[k]++] = i;
+				}
+
+		// les vues sont créées ici, sur un seul thread : seules les écritures de pixels sont parallèles
+		Surface[] vues = new Surface[nbX * nbY];
+		for(int k = 0 ; k < vues.length ; k++) {
+			if(debut[k] == debut[k + 1])
+				continue;
+			int x0 = (k % nbX) * TAILLE_TUILE, y0 = (k / nbX) * TAILLE_TUILE;
+			vues[k] = surface.clip(x0, y0, x0 + TAILLE_TUILE - 1, y0 + TAILLE_TUILE - 1);
+		}
+
+		pool.invoke(new Tache(elements, t, vues, debut, contenu, 0, vues.length));
+		return ecartes;
+	}
+
+	private static int tuile(double v, int nb) {
+		int k = (int) Math.floor(v / TAILLE_TUILE);
+		return Math.max(0, Math.min(nb - 1, k));
+	}
+
+	@SuppressWarnings("serial")
+	private static class Tache extends RecursiveAction {
+		private final GraphicalElement[] elements;
+		private final Affine t;
+		private final Surface[] vues;
+		private final int[] debut;
+		private final int[] contenu;
+		private final int premiere;
+		private final int fin;
+
+		Tache(GraphicalElement[] elements, Affine t, Surface[] vues, int[] debut, int[] contenu, int premiere, int fin) {
+			this.elements = elements;
+			this.t = t;
+			this.vues = vues;
+			this.debut = debut;
+			this.contenu = contenu;
+			this.premiere = premiere;
+			this.fin = fin;
+		}
+
+		protected void compute() {
+			if(this.fin - this.premiere <= SEUIL) {
+				for(int k = this.premiere ; k < this.fin ; k++) {
+					Surface vue = this.vues[k];
+					for(int j = this.debut[k] ; j < this.debut[k + 1] ; j++)
+						this.elements[this.contenu[j]].draw(vue, this.t);
+				}
+				return;
+			}
+			int milieu = (this.premiere + this.fin) >>> 1;
+			invokeAll(new Tache(this.elements, this.t, this.vues, this.debut, this.contenu, this.premiere, milieu),
+					new Tache(this.elements, this.t, this.vues, this.debut, this.contenu, milieu, this.fin));
+		}
+	}
+}
@@ -7,13 +7,18 @@ public class Triangle extends Polygon {
 	}
 	
 	public boolean estTriangleRectangle() {
-		Point a = this.sommets[0];
-		Point b = this.sommets[1];
-		Point c = this.sommets[2];
+		Point a = this.getSommet(0);
+		Point b = this.getSommet(1);
+		Point c = this.getSommet(2);
+		return estTriangleRectangle(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY());
+	}
+	
+	// partagé avec ShapeAnalytics pour que les résultats soient identiques
+	static boolean estTriangleRectangle(double ax, double ay, double bx, double by, double cx, double cy) {
 		// vérifier si le produit scalaire entre chaque 2 arretes vaut 0
-		return (a.getX() - b.getX())*(a.getX() - c.getX()) + (a.getY() - b.getY())*(a.getY() - c.getY()) == 0
-				|| (a.getX() - c.getX())*(b.getX() - c.getX()) + (a.getY() - b.getY())*(b.getY() - c.getY()) == 0
-				|| (a.getX() - b.getX())*(b.getX() - c.getX()) + (a.getY() - b.getY())*(b.getY() - c.getY()) == 0;
+		return (ax - bx)*(ax - cx) + (ay - by)*(ay - cy) == 0
+				|| (ax - cx)*(bx - cx) + (ay - by)*(by - cy) == 0
+				|| (ax - bx)*(bx - cx) + (ay - by)*(by - cy) == 0;
 	}
 
 }
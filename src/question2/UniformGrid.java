@@ -0,0 +1,350 @@
+package question2;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Grille uniforme adressée par hachage : la case (cx, cy) du plan, de côté
+// cote, est rangée dans l'alvéole hachage(cx, cy) d'une table de taille
+// puissance de 2. Le plan n'a pas de bord, les éléments peuvent aller
+// n'importe où ; deux cases qui tombent dans la même alvéole ne coûtent
+// que des boîtes testées en trop.
+//
+// Un élément est inscrit dans chacune des cases que couvre sa boîte. Les
+// inscriptions sont des listes chaînées dans des tableaux d'entiers, sans
+// objet ni clé en boîte : le déplacer coûte un retrait et une inscription
+// par case couverte, O(1) pour un élément petit devant les cases. Les
+// éléments qui couvriraient trop de cases sont rangés à part, dans une
+// liste parcourue à chaque requête.
+//
+// Les requêtes marquent les éléments déjà vus : elles ne doivent pas être
+// faites depuis plusieurs threads à la fois.
+class UniformGrid implements SpatialIndex {
+	// au-delà de ce nombre de cases couvertes, un élément est rangé à part
+	private static final int MAX_CASES = 16;
+	private static final int LIMITE = 1 << 29;
+
+	private double cote = 1;
+	// nombre d'alvéoles - 1 ; l'alvéole masque + 1 contient les grands éléments
+	private int masque;
+	// première inscription de chaque alvéole, -1 si elle est vide
+	private int[] tetes;
+
+	// inscriptions : élément, voisines dans la liste de l'alvéole, alvéole,
+	// inscription suivante du même élément ; les libres sont chaînées par suivant
+	private int[] entreeId = new int[0];
+	private int[] suivant = new int[0];
+	private int[] precedent = new int[0];
+	private int[] alveole = new int[0];
+	private int[] suivanteElement = new int[0];
+	private int libre = -1;
+	private int nbEntrees = 0;
+
+	// boîte et première inscription de chaque élément (-1 s'il n'est pas indexé)
+	private double[] minX = new double[0], minY = new double[0], maxX = new double[0], maxY = new double[0];
+	private int[] premiere = new int[0];
+	private int nbElements = 0;
+
+	// marques des requêtes, pour ne renvoyer qu'une fois un élément inscrit dans plusieurs cases
+	private int[] marque = new int[0];
+	private int requete = 0;
+
+	// étendue des éléments indexés (elle ne fait que croître), qui borne la recherche du plus proche
+	private double bordX0 = Double.POSITIVE_INFINITY, bordY0 = Double.POSITIVE_INFINITY;
+	private double bordX1 = Double.NEGATIVE_INFINITY, bordY1 = Double.NEGATIVE_INFINITY;
+
+	UniformGrid() {
+		this.allouerTable(16);
+	}
+
+	public int taille() {
+		return this.nbElements;
+	}
+
+	// Le côté des cases est la plus grande de deux longueurs : la taille moyenne
+	// des éléments, pour que la plupart ne couvrent que quelques cases, et le
+	// côté d'un carré de l'étendue divisée par n, pour avoir environ un élément par case.
+	public void construire(BoundingBox[] boites) {
+		int n = boites.length;
+		double somme = 0;
+		double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+		int nb = 0;
+		for(int i = 0 ; i < n ; i++) {
+			BoundingBox b = boites[i];
+			if(b.isEmpty())
+				continue;
+			somme += Math.max(b.getMaxX() - b.getMinX(), b.getMaxY() - b.getMinY());
+			x0 = Math.min(x0, b.getMinX());
+			y0 = Math.min(y0, b.getMinY());
+			x1 = Math.max(x1, b.getMaxX());
+			y1 = Math.max(y1, b.getMaxY());
+			nb++;
+		}
+		double cote = 1;
+		if(nb > 0) {
+			cote = Math.max(somme / nb, Math.sqrt((x1 - x0) * (y1 - y0) / nb));
+			if(!(cote > 0) || Double.isInfinite(cote))
+				cote = 1;
+		}
+		this.cote = cote;
+
+		this.minX = new double[n];
+		this.minY = new double[n];
+		this.maxX = new double[n];
+		this.maxY = new double[n];
+		this.premiere = new int[n];
+		Arrays.fill(this.premiere, -1);
+		this.marque = new int[n];
+		this.nbElements = 0;
+		this.entreeId = new int[0];
+		this.suivant = new int[0];
+		this.precedent = new int[0];
+		this.alveole = new int[0];
+		this.suivanteElement = new int[0];
+		this.libre = -1;
+		this.nbEntrees = 0;
+		this.bordX0 = this.bordY0 = Double.POSITIVE_INFINITY;
+		this.bordX1 = this.bordY1 = Double.NEGATIVE_INFINITY;
+		this.allouerTable(Integer.highestOneBit(Math.max(16, 2 * nb) - 1) << 1);
+
+		for(int i = 0 ; i < n ; i++)
+			this.inserer(i, boites[i]);
+	}
+
+	public void inserer(int id, BoundingBox b) {
+		if(b.isEmpty())
+			return;
+		if(id >= this.premiere.length) {
+			int n = Math.max(id + 1, 2 * this.premiere.length);
+			this.minX = Arrays.copyOf(this.minX, n);
+			this.minY = Arrays.copyOf(this.minY, n);
+			this.maxX = Arrays.copyOf(this.maxX, n);
+			this.maxY = Arrays.copyOf(this.maxY, n);
+			int ancienne = this.premiere.length;
+			this.premiere = Arrays.copyOf(this.premiere, n);
+			Arrays.fill(this.premiere, ancienne, n, -1);
+			this.marque = Arrays.copyOf(this.marque, n);
+		}
+		this.minX[id] = b.getMinX();
+		this.minY[id] = b.getMinY();
+		this.maxX[id] = b.getMaxX();
+		this.maxY[id] = b.getMaxY();
+		this.bordX0 = Math.min(this.bordX0, b.getMinX());
+		this.bordY0 = Math.min(this.bordY0, b.getMinY());
+		this.bordX1 = Math.max(this.bordX1, b.getMaxX());
+		this.bordY1 = Math.max(this.bordY1, b.getMaxY());
+		this.nbElements++;
+		this.inscrire(id);
+
+		// table agrandie quand elle est trop chargée : O(1) amorti par insertion
+		if(this.nbElements > 2 * (this.masque + 1))
+			this.rehacher(4 * (this.masque + 1));
+	}
+
+	public void supprimer(int id) {
+		if(id >= this.premiere.length || this.premiere[id] < 0)
+			return;
+		this.desinscrire(id);
+		this.nbElements--;
+	}
+
+	public void deplacer(int id, BoundingBox b) {
+		this.supprimer(id);
+		this.inserer(id, b);
+	}
+
+	public void chercher(double x0, double y0, double x1, double y1, IntConsumer action) {
+		int r = this.nouvelleRequete();
+		this.parcourirAlveole(this.masque + 1, r, x0, y0, x1, y1, action);
+
+		int cx0 = this.cellule(Math.max(x0, this.bordX0)), cx1 = this.cellule(Math.min(x1, this.bordX1));
+		int cy0 = this.cellule(Math.max(y0, this.bordY0)), cy1 = this.cellule(Math.min(y1, this.bordY1));
+		if(cx0 > cx1 || cy0 > cy1)
+			return;
+		// plus de cases que d'alvéoles : autant parcourir toute la table
+		if((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > this.masque + 1) {
+			for(int a = 0 ; a <= this.masque ; a++)
+				this.parcourirAlveole(a, r, x0, y0, x1, y1, action);
+			return;
+		}
+		for(int cy = cy0 ; cy <= cy1 ; cy++)
+			for(int cx = cx0 ; cx <= cx1 ; cx++)
+				this.parcourirAlveole(this.hacher(cx, cy), r, x0, y0, x1, y1, action);
+	}
+
+	// Recherche par anneaux de cases de plus en plus larges autour de celle du
+	// point : l'anneau k est à au moins (k - 1) * cote du point, on s'arrête
+	// dès que cette distance dépasse celle du meilleur élément trouvé.
+	public int plusProche(double x, double y) {
+		if(this.nbElements == 0)
+			return -1;
+		int r = this.nouvelleRequete();
+		int[] meilleur = {-1};
+		double[] distance = {Double.POSITIVE_INFINITY};
+		IntConsumer candidat = id -> {
+			double d = distance2(x, y, this.minX[id], this.minY[id], this.maxX[id], this.maxY[id]);
+			if(d < distance[0]) {
+				distance[0] = d;
+				meilleur[0] = id;
+			}
+		};
+		this.visiter(this.masque + 1, r, candidat);
+
+		// seuls les anneaux qui rencontrent l'étendue des éléments sont parcourus,
+		// et seulement sur cette étendue
+		int cx = this.cellule(x), cy = this.cellule(y);
+		int ex0 = this.cellule(this.bordX0), ex1 = this.cellule(this.bordX1);
+		int ey0 = this.cellule(this.bordY0), ey1 = this.cellule(this.bordY1);
+		int premier = Math.max(Math.max(0, Math.max(ex0 - cx, cx - ex1)), Math.max(ey0 - cy, cy - ey1));
+		int dernier = Math.max(Math.max(cx - ex0, ex1 - cx), Math.max(cy - ey0, ey1 - cy));
+		long visitees = 0;
+		for(int k = premier ; k <= dernier ; k++) {
+			double limite = Math.max(0, k - 1) * this.cote;
+			if(limite * limite > distance[0])
+				break;
+			visitees += 8L * k + 1;
+			if(visitees > 2L * (this.masque + 1)) {
+				// plus de cases que d'alvéoles : la table est parcourue en entier, une fois pour toutes
+				for(int a = 0 ; a <= this.masque ; a++)
+					this.visiter(a, r, candidat);
+				break;
+			}
+			int i0 = Math.max(-k, ex0 - cx), i1 = Math.min(k, ex1 - cx);
+			int j0 = Math.max(-k + 1, ey0 - cy), j1 = Math.min(k - 1, ey1 - cy);
+			for(int i = i0 ; i <= i1 ; i++) {
+				if(cy - k >= ey0)
+					this.visiter(this.hacher(cx + i, cy - k), r, candidat);
+				if(k > 0 && cy + k <= ey1)
+					this.visiter(this.hacher(cx + i, cy + k), r, candidat);
+			}
+			for(int j = j0 ; j <= j1 ; j++) {
+				if(cx - k >= ex0)
+					this.visiter(this.hacher(cx - k, cy + j), r, candidat);
+				if(cx + k <= ex1)
+					this.visiter(this.hacher(cx + k, cy + j), r, candidat);
+			}
+		}
+		return meilleur[0];
+	}
+
+	// tous les éléments de l'alvéole a pas encore vus par la requête r
+	private void visiter(int a, int r, IntConsumer action) {
+		this.parcourirAlveole(a, r, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, action);
+	}
+
+	// éléments de l'alvéole a, pas encore vus par la requête r, dont la boîte rencontre la zone
+	private void parcourirAlveole(int a, int r, double x0, double y0, double x1, double y1, IntConsumer action) {
+		for(int e = this.tetes[a] ; e >= 0 ; e = this.suivant[e]) {
+			int id = this.entreeId[e];
+			if(this.marque[id] == r)
+				continue;
+			this.marque[id] = r;
+			if(this.maxX[id] >= x0 && this.minX[id] <= x1 && this.maxY[id] >= y0 && this.minY[id] <= y1)
+				action.accept(id);
+		}
+	}
+
+	private int nouvelleRequete() {
+		if(++this.requete == 0) {
+			// après 2^32 requêtes, les anciennes marques pourraient être confondues
+			Arrays.fill(this.marque, 0);
+			this.requete = 1;
+		}
+		return this.requete;
+	}
+
+	// inscrit l'élément dans les cases de sa boîte, ou à part s'il en couvre trop
+	private void inscrire(int id) {
+		int cx0 = this.cellule(this.minX[id]), cx1 = this.cellule(this.maxX[id]);
+		int cy0 = this.cellule(this.minY[id]), cy1 = this.cellule(this.maxY[id]);
+		if((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > MAX_CASES) {
+			this.ajouterEntree(id, this.masque + 1);
+			return;
+		}
+		for(int cy = cy0 ; cy <= cy1 ; cy++)
+			for(int cx = cx0 ; cx <= cx1 ; cx++)
+				this.ajouterEntree(id, this.hacher(cx, cy));
+	}
+
+	private void ajouterEntree(int id, int a) {
+		int e = this.libre;
+		if(e >= 0)
+			this.libre = this.suivant[e];
+		else {
+			e = this.nbEntrees++;
+			if(e == this.entreeId.length) {
+				int n = Math.max(16, 2 * e);
+				this.entreeId = Arrays.copyOf(this.entreeId, n);
+				this.suivant = Arrays.copyOf(this.suivant, n);
+				this.precedent = Arrays.copyOf(this.precedent, n);
+				this.alveole = Arrays.copyOf(this.alveole, n);
+				this.suivanteElement = Arrays.copyOf(this.suivanteElement, n);
+			}
+		}
+		this.entreeId[e] = id;
+		this.alveole[e] = a;
+		this.precedent[e] = -1;
+		this.suivant[e] = this.tetes[a];
+		if(this.tetes[a] >= 0)
+			this.precedent[this.tetes[a]] = e;
+		this.tetes[a] = e;
+		this.suivanteElement[e] = this.premiere[id];
+		this.premiere[id] = e;
+	}
+
+	private void desinscrire(int id) {
+		int e = this.premiere[id];
+		while(e >= 0) {
+			int s = this.suivanteElement[e];
+			int p = this.precedent[e], n = this.suivant[e];
+			if(p >= 0)
+				this.suivant[p] = n;
+			else
+				this.tetes[this.alveole[e]] = n;
+			if(n >= 0)
+				this.precedent[n] = p;
+			this.suivant[e] = this.libre;
+			this.libre = e;
+			e = s;
+		}
+		this.premiere[id] = -1;
+	}
+
+	private void allouerTable(int nbAlveoles) {
+		this.masque = nbAlveoles - 1;
+		this.tetes = new int[nbAlveoles + 1];
+		Arrays.fill(this.tetes, -1);
+	}
+
+	// nouvelle table : toutes les inscriptions sont refaites
+	private void rehacher(int nbAlveoles) {
+		this.allouerTable(nbAlveoles);
+		this.libre = -1;
+		this.nbEntrees = 0;
+		for(int id = 0 ; id < this.premiere.length ; id++) {
+			if(this.premiere[id] < 0)
+				continue;
+			this.premiere[id] = -1;
+			this.inscrire(id);
+		}
+	}
+
+	// bornée à +-2^29, pour que les boucles sur les cases ne débordent pas
+	private int cellule(double v) {
+		double c = Math.floor(v / this.cote);
+		return (int) Math.max(-LIMITE, Math.min(LIMITE, c));
+	}
+
+	private int hacher(int cx, int cy) {
+		int h = cx * 0x9E3779B1 + cy * 0x85EBCA77;
+		return (h ^ (h >>> 15)) & this.masque;
+	}
+
+	// carré de la distance de (x, y) à la boîte, nul à l'intérieur
+	private static double distance2(double x, double y, double x0, double y0, double x1, double y1) {
+		double dx = Math.max(Math.max(x0 - x, 0), x - x1);
+		double dy = Math.max(Math.max(y0 - y, 0), y - y1);
+		return dx*dx + dy*dy;
+	}
+}
@@ -0,0 +1,88 @@
+package question2;
+
+import java.util.Arrays;
+
+// Stockage contigu des sommets d'un polygone : deux tableaux de doubles
+// au lieu d'un objet Point par sommet
+public class VertexBuffer {
+	private final double[] xs;
+	private final double[] ys;
+
+	public VertexBuffer(int size) {
+		this.xs = new double[size];
+		this.ys = new double[size];
+	}
+
+	public VertexBuffer(Point[] sommets) {
+		this(sommets.length);
+		for(int i = 0 ; i < sommets.length ; i++) {
+			this.xs[i] = sommets[i].getX();
+			this.ys[i] = sommets[i].getY();
+		}
+	}
+
+	// copie les n premières coordonnées des tableaux
+	public VertexBuffer(double[] xs, double[] ys, int n) {
+		this.xs = Arrays.copyOf(xs, n);
+		this.ys = Arrays.copyOf(ys, n);
+	}
+
+	public int size() {
+		return this.xs.length;
+	}
+
+	public double getX(int i) {
+		return this.xs[i];
+	}
+
+	public double getY(int i) {
+		return this.ys[i];
+	}
+
+	public void set(int i, double x, double y) {
+		this.xs[i] = x;
+		this.ys[i] = y;
+	}
+
+	public void translate(double dx, double dy) {
+		double[] xs = this.xs, ys = this.ys;
+		for(int i = 0 ; i < xs.length ; i++) {
+			xs[i] += dx;
+			ys[i] += dy;
+		}
+	}
+
+	public void rotate(double angle) {
+		// cos et sin calculés une seule fois pour tous les sommets
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		double[] xs = this.xs, ys = this.ys;
+		for(int i = 0 ; i < xs.length ; i++) {
+			double x = xs[i];
+			double y = ys[i];
+			xs[i] = x*cos - y*sin;
+			ys[i] = x*sin + y*cos;
+		}
+	}
+
+	public void transform(Affine t) {
+		double m00 = t.getM00(), m01 = t.getM01(), m02 = t.getM02();
+		double m10 = t.getM10(), m11 = t.getM11(), m12 = t.getM12();
+		double[] xs = this.xs, ys = this.ys;
+		for(int i = 0 ; i < xs.length ; i++) {
+			double x = xs[i];
+			double y = ys[i];
+			xs[i] = m00*x + m01*y + m02;
+			ys[i] = m10*x + m11*y + m12;
+		}
+	}
+
+	// accès direct aux tableaux pour les boucles de calcul et de dessin
+	double[] xs() {
+		return this.xs;
+	}
+
+	double[] ys() {
+		return this.ys;
+	}
+}